@@ -0,0 +1,100 @@
+/*  Original Licensing Copyright
+ * 
+ *  Runs the rate counter benchmarks at increasing thread counts.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link CounterBenchmarks} at 1, 2, 4 and so on threads, and at the
+ * maximum number of threads even if it is not a power of two, with the GC
+ * profiler attached, writing JSON result files per thread count so results
+ * can be diffed between versions: one with throughput in operations per
+ * microsecond and one with average and sampled latency in nanoseconds.
+ * <p>
+ * Built and packaged by the Maven module in this directory; usage:
+ * {@code java -jar target/benchmarks.jar [maxThreads] [outputDirectory]},
+ * defaulting to the number of available processors and
+ * {@code jmh-results}.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.3
+ */
+public final class CounterBenchmarkRunner {
+	private CounterBenchmarkRunner() {}
+
+	/**
+	 * Runs the benchmarks.
+	 * 
+	 * @param args The optional maximum thread count and output directory.
+	 * @throws RunnerException Thrown if a benchmark run failed.
+	 * @since 0.0.1
+	 */
+	public static void main(String[] args) throws RunnerException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+				: Runtime.getRuntime().availableProcessors();
+		File dir = new File(args.length > 1 ? args[1] : "jmh-results");
+		dir.mkdirs();
+
+		for(int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+			String prefix = "counters-" + threads + "t";
+			run(threads, TimeUnit.MICROSECONDS,
+					new File(dir, prefix + ".json"), Mode.Throughput);
+			run(threads, TimeUnit.NANOSECONDS,
+					new File(dir, prefix + "-latency.json"),
+					Mode.AverageTime, Mode.SampleTime);
+			if(threads >= maxThreads)break;
+		}
+	}
+
+	/**
+	 * Private helper method running the benchmarks at a thread count in
+	 * specified modes.
+	 * 
+	 * @param threads The number of benchmark threads.
+	 * @param unit    The time unit of the results.
+	 * @param result  The JSON file to write the results to.
+	 * @param modes   The benchmark modes to run.
+	 * @throws RunnerException Thrown if a benchmark run failed.
+	 * @since 0.0.2
+	 */
+	private static void run(int threads, TimeUnit unit, File result,
+			Mode... modes) throws RunnerException {
+		OptionsBuilder builder = new OptionsBuilder();
+		for(Mode mode : modes)builder.mode(mode);
+		Options options = builder
+				.include(CounterBenchmarks.class.getName() + "\\.")
+				.threads(threads)
+				.timeUnit(unit)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.getPath())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,214 @@
+/*  Original Licensing Copyright
+ * 
+ *  JMH benchmarks for the rate counters under contention.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dz_fs_dev.common.counters.CounterRegistry;
+import com.dz_fs_dev.common.counters.MultiHorizonRateCounter;
+import com.dz_fs_dev.common.counters.PerMinuteExponentialRateCounter;
+import com.dz_fs_dev.common.counters.PerSecondExponentialRateCounter;
+import com.dz_fs_dev.common.counters.SlidingWindowRateCounter;
+
+/**
+ * JMH benchmarks measuring ticks, polls and a mixed read/write workload for
+ * every rate counter variant, reporting throughput as well as average and
+ * sampled latency. The thread count is chosen by the runner, see
+ * {@link CounterBenchmarkRunner}. New variants are added by extending
+ * {@link Counter#of(String)} and the variant parameter.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmarks {
+	/**
+	 * Common view of the benchmarked counter variants.
+	 * 
+	 * @since 0.0.1
+	 */
+	interface Counter {
+		void tick();
+
+		double poll();
+
+		/**
+		 * Constructs the counter variant with a specified name.
+		 * 
+		 * @param variant The name of the variant.
+		 * @return The counter variant.
+		 * @throws IllegalArgumentException Thrown for an unknown variant.
+		 * @since 0.0.1
+		 */
+		static Counter of(String variant) {
+			switch(variant) {
+			case "synchronized-second": {
+				PerSecondExponentialRateCounter c =
+						new PerSecondExponentialRateCounter(60);
+				return of(c::tick, c::pollPS);
+			}
+			case "striped-second": {
+				PerSecondExponentialRateCounter c =
+						new PerSecondExponentialRateCounter(60, true);
+				return of(c::tick, c::pollPS);
+			}
+			case "synchronized-minute": {
+				PerMinuteExponentialRateCounter c =
+						new PerMinuteExponentialRateCounter(15);
+				return of(c::tick, c::poll);
+			}
+			case "striped-minute": {
+				PerMinuteExponentialRateCounter c =
+						new PerMinuteExponentialRateCounter(15, true);
+				return of(c::tick, c::poll);
+			}
+			case "registry": {
+				CounterRegistry r = new CounterRegistry(1, 60, TimeUnit.SECONDS);
+				int id = r.intern("benchmark");
+				return of(() -> r.tick(id), () -> r.poll(id));
+			}
+			case "multi-horizon": {
+				MultiHorizonRateCounter c = MultiHorizonRateCounter.loadAverage();
+				return of(c::tick, () -> c.poll(0));
+			}
+			case "sliding-window": {
+				SlidingWindowRateCounter c = new SlidingWindowRateCounter(60);
+				return of(c::tick, c::pollPS);
+			}
+			default:
+				throw new IllegalArgumentException("Unknown variant " + variant);
+			}
+		}
+
+		/**
+		 * Adapts a tick and a poll method into a counter.
+		 * 
+		 * @param tick The tick method.
+		 * @param poll The poll method.
+		 * @return The counter.
+		 * @since 0.0.1
+		 */
+		private static Counter of(Runnable tick,
+				java.util.function.DoubleSupplier poll) {
+			return new Counter() {
+				@Override
+				public void tick() {
+					tick.run();
+				}
+
+				@Override
+				public double poll() {
+					return poll.getAsDouble();
+				}
+			};
+		}
+	}
+
+	/**
+	 * One counter shared by every benchmark thread.
+	 * 
+	 * @since 0.0.1
+	 */
+	@State(Scope.Benchmark)
+	public static class Shared {
+		@Param({"synchronized-second", "striped-second", "synchronized-minute",
+			"striped-minute", "registry", "multi-horizon", "sliding-window"})
+		public String variant;
+
+		Counter counter;
+
+		@Setup
+		public void setup() {
+			counter = Counter.of(variant);
+		}
+	}
+
+	/**
+	 * Per thread position in the mixed workload.
+	 * 
+	 * @since 0.0.2
+	 */
+	@State(Scope.Thread)
+	public static class Mix {
+		/** The number of ticks issued per poll by each thread. */
+		@Param({"1", "7", "31"})
+		public int writesPerRead;
+
+		int op;
+	}
+
+	/**
+	 * Measures ticks with every thread ticking.
+	 * 
+	 * @param shared The shared counter.
+	 * @since 0.0.1
+	 */
+	@Benchmark
+	public void tick(Shared shared) {
+		shared.counter.tick();
+	}
+
+	/**
+	 * Measures polls with every thread polling.
+	 * 
+	 * @param shared The shared counter.
+	 * @return The polled rate.
+	 * @since 0.0.1
+	 */
+	@Benchmark
+	public double poll(Shared shared) {
+		return shared.counter.poll();
+	}
+
+	/**
+	 * Measures a mixed workload in which every thread polls once after each
+	 * {@link Mix#writesPerRead} ticks.
+	 * 
+	 * @param shared The shared counter.
+	 * @param mix    The position of the thread in the workload.
+	 * @return The polled rate, or 0 after a tick.
+	 * @since 0.0.2
+	 */
+	@Benchmark
+	public double mixed(Shared shared, Mix mix) {
+		if(mix.op++ == mix.writesPerRead) {
+			mix.op = 0;
+			return shared.counter.poll();
+		}
+		shared.counter.tick();
+		return 0;
+	}
+}
@@ -0,0 +1,102 @@
+/*  Original Licensing Copyright
+ * 
+ *  Cached clock refreshed by a background thread.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse {@link TickClock} which caches the reading of a source clock in a
+ * volatile field refreshed by a daemon thread. Reading the clock costs a
+ * single volatile read at the expense of resolution.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public final class CoarseTickClock implements TickClock, AutoCloseable {
+	private final TickClock source;
+	private final long resolutionNanos;
+	private final Thread updater;
+	private volatile long now;
+	private volatile boolean running = true;
+
+	/**
+	 * Constructs a coarse clock caching {@link TickClock#MONOTONIC}.
+	 * 
+	 * @param resolutionMillis The refresh interval in milliseconds.
+	 * @throws IllegalArgumentException Thrown when resolutionMillis is less
+	 *                                  than 1.
+	 * @since 0.0.1
+	 */
+	public CoarseTickClock(long resolutionMillis) {
+		this(TickClock.MONOTONIC, resolutionMillis);
+	}
+
+	/**
+	 * Constructs a coarse clock caching a specified source clock.
+	 * 
+	 * @param source           The clock to cache.
+	 * @param resolutionMillis The refresh interval in milliseconds.
+	 * @throws IllegalArgumentException Thrown when resolutionMillis is less
+	 *                                  than 1.
+	 * @since 0.0.1
+	 */
+	public CoarseTickClock(TickClock source, long resolutionMillis) {
+		if(resolutionMillis < 1)throw new IllegalArgumentException(
+				"resolutionMillis cannot be less than 1.");
+		this.source = source;
+		this.resolutionNanos = TimeUnit.MILLISECONDS.toNanos(resolutionMillis);
+		this.now = source.nanoTime();
+		this.updater = new Thread(this::run, "CoarseTickClock");
+		this.updater.setDaemon(true);
+		this.updater.start();
+	}
+
+	/**
+	 * Private helper method refreshing the cached reading until closed.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void run() {
+		while(running) {
+			now = source.nanoTime();
+			LockSupport.parkNanos(resolutionNanos);
+		}
+	}
+
+	/**
+	 * @since 0.0.1
+	 */
+	@Override
+	public long nanoTime() {
+		return now;
+	}
+
+	/**
+	 * Stops the background refresh; the clock keeps its last reading.
+	 * 
+	 * @since 0.0.1
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(updater);
+	}
+}
@@ -0,0 +1,476 @@
+/*  Original Licensing Copyright
+ * 
+ *  Registry of named exponential average rate counters.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe registry of named rate counters sharing one Exponential Moving
+ * Average period and rate unit. Counters are interned by name and tags and
+ * addressed by an integer id. Their state is kept in primitive parallel
+ * arrays rather than one object per counter, ticks are lock-free, and all
+ * counters are decayed together in a single sweep, optionally on a scheduled
+ * background thread.
+ * <p>
+ * A registry with a period of P {@link TimeUnit#SECONDS} reports the same
+ * rates as a {@link PerSecondExponentialRateCounter} with a period of P; a
+ * period of P {@link TimeUnit#MINUTES} matches a
+ * {@link PerMinuteExponentialRateCounter}.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.3
+ */
+public class CounterRegistry implements AutoCloseable {
+	private static final VarHandle PENDING =
+			MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * Stride of the pending ticks in longs, padding each counter's slot to
+	 * its own 64 byte cache line so concurrent ticks of adjacent counters do
+	 * not contend.
+	 */
+	private static final int PENDING_SHIFT = 3;
+
+	private final int emaPeriod;
+	private final double emaRate2, logRate2;
+	private final double periodMillis, unitMillis;
+	private final TickClock clock;
+	private final ConcurrentHashMap<String, Integer> index =
+			new ConcurrentHashMap<>();
+
+	private final String[] names;
+	/**
+	 * Raw bits of the ticks not yet folded into count, at id shifted by
+	 * {@link #PENDING_SHIFT}; CAS updated.
+	 */
+	private final long[] pending;
+	private final double[] count;
+	private final double[] ts;
+	private volatile int size = 0;
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Constructs a registry of rate counters using the monotonic clock.
+	 * 
+	 * @param capacity  The maximum number of counters in the registry.
+	 * @param emaPeriod The exponential moving average period in the specified
+	 *                  unit.
+	 * @param unit      The unit of both the period and the polled rates.
+	 * @throws IllegalArgumentException Thrown when capacity is less than 1,
+	 *                                  emaPeriod is less than 2, or unit is
+	 *                                  finer than milliseconds.
+	 * @since 0.0.1
+	 */
+	public CounterRegistry(int capacity, int emaPeriod, TimeUnit unit) {
+		this(capacity, emaPeriod, unit, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs a registry of rate counters reading time from a specified
+	 * clock.
+	 * 
+	 * @param capacity  The maximum number of counters in the registry.
+	 * @param emaPeriod The exponential moving average period in the specified
+	 *                  unit.
+	 * @param unit      The unit of both the period and the polled rates.
+	 * @param clock     The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when capacity is less than 1,
+	 *                                  emaPeriod is less than 2, or unit is
+	 *                                  finer than milliseconds.
+	 * @since 0.0.1
+	 */
+	public CounterRegistry(int capacity, int emaPeriod, TimeUnit unit,
+			TickClock clock) {
+		if(capacity < 1)throw new IllegalArgumentException(
+				"capacity cannot be less than 1.");
+		if(emaPeriod < 2)throw new IllegalArgumentException(
+				"emaPeriod cannot be less than 2.");
+		if(unit.toMillis(1) < 1)throw new IllegalArgumentException(
+				"unit cannot be finer than milliseconds.");
+		this.emaPeriod = emaPeriod;
+		this.emaRate2 = 1.0 - 2.0 / (emaPeriod + 1.0);
+		this.logRate2 = Math.log(emaRate2);
+		this.unitMillis = unit.toMillis(1);
+		this.periodMillis = emaPeriod * unitMillis;
+		this.clock = clock;
+		this.names = new String[capacity];
+		this.pending = new long[capacity << PENDING_SHIFT];
+		this.count = new double[capacity];
+		this.ts = new double[capacity];
+	}
+
+	/**
+	 * Returns the id of the counter with a specified name and tags,
+	 * registering it if it does not exist yet. Tags are given as alternating
+	 * keys and values; their order does not matter.
+	 * 
+	 * @param name The name of the counter.
+	 * @param tags Alternating tag keys and values.
+	 * @return The id of the counter.
+	 * @throws IllegalArgumentException Thrown when tags has an odd length.
+	 * @throws IllegalStateException    Thrown when the registry is full.
+	 * @since 0.0.1
+	 */
+	public int intern(String name, String... tags) {
+		return index.computeIfAbsent(key(name, tags), this::register);
+	}
+
+	/**
+	 * Private helper method building the canonical key of a counter in the
+	 * form name{k1=v1,k2=v2} with tags sorted by key.
+	 * 
+	 * @param name The name of the counter.
+	 * @param tags Alternating tag keys and values.
+	 * @return The canonical key.
+	 * @since 0.0.1
+	 */
+	private static String key(String name, String... tags) {
+		if(tags.length % 2 != 0)throw new IllegalArgumentException(
+				"tags must be alternating keys and values.");
+		if(tags.length == 0)return name;
+
+		String[] pairs = new String[tags.length / 2];
+		for(int i = 0; i < pairs.length; i++) {
+			pairs[i] = tags[2 * i] + '=' + tags[2 * i + 1];
+		}
+		Arrays.sort(pairs);
+		return name + '{' + String.join(",", pairs) + '}';
+	}
+
+	/**
+	 * Private helper method allocating the next slot for a new counter.
+	 * 
+	 * @param key The canonical key of the counter.
+	 * @return The id of the new counter.
+	 * @since 0.0.1
+	 */
+	private synchronized int register(String key) {
+		int id = size;
+		if(id == names.length)throw new IllegalStateException(
+				"CounterRegistry is full at " + names.length + " counters.");
+		names[id] = key;
+		ts[id] = clock.millis();
+		size = id + 1;
+		return id;
+	}
+
+	/**
+	 * Increments a counter by 1; thread-safe and lock-free.
+	 * 
+	 * @param id The id of the counter.
+	 * @since 0.0.1
+	 */
+	public void tick(int id) {
+		tick(id, 1);
+	}
+
+	/**
+	 * Increments a counter by a custom amount; thread-safe and lock-free.
+	 * 
+	 * @param id     The id of the counter.
+	 * @param amount The amount to be incremented in the counter. Supports
+	 *               decimals and negative numbers.
+	 * @throws IndexOutOfBoundsException Thrown when id is not registered.
+	 * @since 0.0.1
+	 */
+	public void tick(int id, double amount) {
+		if(id >= size)throw new IndexOutOfBoundsException(id);
+		int slot = id << PENDING_SHIFT;
+		long prev;
+		do {
+			prev = (long)PENDING.getVolatile(pending, slot);
+		}while(!PENDING.weakCompareAndSet(pending, slot, prev,
+				Double.doubleToRawLongBits(
+						Double.longBitsToDouble(prev) + amount)));
+	}
+
+	/**
+	 * Polls the exponential moving average rate of a single counter.
+	 * 
+	 * @param id The id of the counter.
+	 * @return The exponential moving average rate per unit.
+	 * @throws IndexOutOfBoundsException Thrown when id is not registered.
+	 * @since 0.0.1
+	 */
+	public synchronized double poll(int id) {
+		if(id >= size)throw new IndexOutOfBoundsException(id);
+		double now = clock.millis();
+		decay(id, now);
+		return count[id] * unitMillis / (now - ts[id]);
+	}
+
+	/**
+	 * Decays every counter in the registry in one sweep.
+	 * 
+	 * @since 0.0.1
+	 */
+	public synchronized void decay() {
+		sweep(size, clock.millis());
+	}
+
+	/**
+	 * Private helper method folding pending ticks into and decaying the
+	 * first n counters. The common case of at most one due step is applied
+	 * with the constant per step factor, in a loop free of calls the JIT
+	 * could not vectorize; only counters idle for several periods take the
+	 * closed form afterwards. Must hold the registry's monitor.
+	 * 
+	 * @param n   The number of counters to sweep.
+	 * @param now The current time in milliseconds.
+	 * @since 0.0.2
+	 */
+	private void sweep(int n, double now) {
+		for(int i = 0; i < n; i++) {
+			count[i] += Double.longBitsToDouble(
+					(long)PENDING.getAndSet(pending, i << PENDING_SHIFT, 0L));
+		}
+
+		final double period = periodMillis, rate2 = emaRate2;
+		boolean idle = false;
+		for(int i = 0; i < n; i++) {
+			double elapsed = now - ts[i];
+			double factor = elapsed > period ? rate2 : 1.0;
+			ts[i] = now - factor * elapsed;
+			count[i] *= factor;
+			idle |= factor * elapsed > period;
+		}
+
+		if(!idle)return;
+		for(int i = 0; i < n; i++) {
+			double elapsed = now - ts[i];
+			if(elapsed > period) {
+				double factor = ExponentialDecay.factor(elapsed, period, rate2,
+						logRate2);
+				ts[i] = now - factor * elapsed;
+				count[i] *= factor;
+			}
+		}
+	}
+
+	/**
+	 * Private helper method folding pending ticks into a counter and
+	 * applying all elapsed decay steps. Must hold the registry's monitor.
+	 * 
+	 * @param id  The id of the counter.
+	 * @param now The current time in milliseconds.
+	 * @since 0.0.1
+	 */
+	private void decay(int id, double now) {
+		double c = count[id] + Double.longBitsToDouble(
+				(long)PENDING.getAndSet(pending, id << PENDING_SHIFT, 0L));
+		double elapsed = now - ts[id];
+		double factor = ExponentialDecay.factor(elapsed, periodMillis, emaRate2,
+				logRate2);
+		if(factor < 1.0) {
+			ts[id] = now - factor * elapsed;
+			c *= factor;
+		}
+		count[id] = c;
+	}
+
+	/**
+	 * Decays every counter and polls all rates in one sweep.
+	 * 
+	 * @return The rates per unit indexed by counter id.
+	 * @since 0.0.1
+	 */
+	public double[] snapshot() {
+		return snapshot(null);
+	}
+
+	/**
+	 * Decays every counter and polls all rates in one sweep into a reusable
+	 * array.
+	 * 
+	 * @param dest The array to write into; reallocated when null or too
+	 *             short.
+	 * @return The rates per unit indexed by counter id; only the first
+	 *         {@link #size()} entries are meaningful.
+	 * @since 0.0.1
+	 */
+	public synchronized double[] snapshot(double[] dest) {
+		int n = size;
+		if(dest == null || dest.length < n)dest = new double[n];
+		double now = clock.millis();
+		sweep(n, now);
+		for(int i = 0; i < n; i++) {
+			dest[i] = count[i] * unitMillis / (now - ts[i]);
+		}
+		return dest;
+	}
+
+	/**
+	 * Starts decaying every counter on a background daemon thread at a fixed
+	 * rate. Has no effect when already started.
+	 * 
+	 * @param intervalMillis The interval between sweeps in milliseconds.
+	 * @since 0.0.1
+	 */
+	public synchronized void start(long intervalMillis) {
+		if(scheduler != null)return;
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "CounterRegistry-decay");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleAtFixedRate(this::decay, intervalMillis,
+				intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background decay sweeps, if started.
+	 * 
+	 * @since 0.0.1
+	 */
+	@Override
+	public synchronized void close() {
+		if(scheduler != null) {
+			scheduler.shutdown();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Returns the number of registered counters.
+	 * 
+	 * @return The number of registered counters.
+	 * @since 0.0.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the canonical name of a counter including its tags.
+	 * 
+	 * @param id The id of the counter.
+	 * @return The canonical name of the counter.
+	 * @since 0.0.1
+	 */
+	public String name(int id) {
+		if(id >= size)throw new IndexOutOfBoundsException(id);
+		return names[id];
+	}
+
+	/**
+	 * Returns the canonical names of all counters indexed by id, matching
+	 * the arrays returned by {@link #snapshot()}.
+	 * 
+	 * @return The canonical names of all counters.
+	 * @since 0.0.1
+	 */
+	public String[] names() {
+		return Arrays.copyOf(names, size);
+	}
+
+	/**
+	 * Exports the decayed state of every counter for snapshotting.
+	 * 
+	 * @return The names, counts and timestamp ages in milliseconds of every
+	 *         counter.
+	 * @since 0.0.2
+	 */
+	synchronized State exportState() {
+		int n = size;
+		double now = clock.millis();
+		State state = new State(Arrays.copyOf(names, n), new double[n],
+				new double[n]);
+		sweep(n, now);
+		for(int i = 0; i < n; i++) {
+			state.counts[i] = count[i];
+			state.ages[i] = now - ts[i];
+		}
+		return state;
+	}
+
+	/**
+	 * Replaces the state of snapshotted counters, registering them if
+	 * needed, with their snapshotted counts and timestamp ages, decaying them
+	 * up to now.
+	 * 
+	 * @param state    The snapshotted state.
+	 * @param downtime The milliseconds elapsed since the snapshot.
+	 * @return The number of counters restored.
+	 * @throws IllegalStateException Thrown when the registry is full.
+	 * @since 0.0.2
+	 */
+	int restoreState(State state, double downtime) {
+		// Register outside the monitor: intern takes the index's bin lock
+		// before the monitor, so the reverse order could deadlock.
+		int[] ids = new int[state.names.length];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = index.computeIfAbsent(state.names[i], this::register);
+		}
+		synchronized(this) {
+			double now = clock.millis();
+			for(int i = 0; i < ids.length; i++) {
+				int id = ids[i];
+				count[id] = state.counts[i];
+				ts[id] = now - state.ages[i] - downtime;
+				decay(id, now);
+			}
+		}
+		return ids.length;
+	}
+
+	/**
+	 * Returns the length of the rate unit in milliseconds.
+	 * 
+	 * @return The length of the rate unit in milliseconds.
+	 * @since 0.0.2
+	 */
+	long getUnitMillis() {
+		return (long)unitMillis;
+	}
+
+	/**
+	 * Returns the exponential moving average period shared by all counters.
+	 * 
+	 * @return The exponential moving average period.
+	 * @since 0.0.1
+	 */
+	public int getEmaPeriod() {
+		return emaPeriod;
+	}
+
+	/**
+	 * Exported state of every counter in a registry, indexed by id.
+	 * 
+	 * @since 0.0.2
+	 */
+	static final class State {
+		final String[] names;
+		final double[] counts;
+		final double[] ages;
+
+		State(String[] names, double[] counts, double[] ages) {
+			this.names = names;
+			this.counts = counts;
+			this.ages = ages;
+		}
+	}
+}
@@ -0,0 +1,289 @@
+/*  Original Licensing Copyright
+ * 
+ *  Snapshots and restores rate counter state across restarts.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.dz_fs_dev.common.io.FileTools.tryReadBytes;
+import static com.dz_fs_dev.common.io.FileTools.tryWriteBytes;
+
+/**
+ * Snapshots the state of named rate counters to a compact binary file and
+ * restores it on startup, so exponential moving averages survive restarts.
+ * The time elapsed between the snapshot and the restore is measured with the
+ * wall clock and decayed in closed form on restore.
+ * <p>
+ * {@link PerSecondExponentialRateCounter},
+ * {@link PerMinuteExponentialRateCounter} and whole {@link CounterRegistry}
+ * instances may be registered. A snapshotted counter is only restored into a
+ * registered counter of the same name, kind and period.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public class CounterSnapshotter implements AutoCloseable {
+	private static final int MAGIC = 0x445A4353;
+	private static final int VERSION = 1;
+	private static final byte PER_SECOND = 1, PER_MINUTE = 2, REGISTRY = 3;
+
+	private final File file;
+	private final Map<String, Object> counters = new ConcurrentHashMap<>();
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Constructs a snapshotter writing to a specified file.
+	 * 
+	 * @param file The file snapshots are written to and restored from.
+	 * @since 0.0.1
+	 */
+	public CounterSnapshotter(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Registers a per second counter under a unique name.
+	 * 
+	 * @param name    The name of the counter in the snapshot.
+	 * @param counter The counter.
+	 * @return This snapshotter.
+	 * @since 0.0.1
+	 */
+	public CounterSnapshotter register(String name,
+			PerSecondExponentialRateCounter counter) {
+		counters.put(name, counter);
+		return this;
+	}
+
+	/**
+	 * Registers a per minute counter under a unique name.
+	 * 
+	 * @param name    The name of the counter in the snapshot.
+	 * @param counter The counter.
+	 * @return This snapshotter.
+	 * @since 0.0.1
+	 */
+	public CounterSnapshotter register(String name,
+			PerMinuteExponentialRateCounter counter) {
+		counters.put(name, counter);
+		return this;
+	}
+
+	/**
+	 * Registers every counter of a registry under a unique name.
+	 * 
+	 * @param name     The name of the registry in the snapshot.
+	 * @param registry The registry.
+	 * @return This snapshotter.
+	 * @since 0.0.1
+	 */
+	public CounterSnapshotter register(String name, CounterRegistry registry) {
+		counters.put(name, registry);
+		return this;
+	}
+
+	/**
+	 * Writes a snapshot of every registered counter, atomically replacing
+	 * the previous snapshot.
+	 * 
+	 * @return True if the snapshot was written; false otherwise.
+	 * @since 0.0.1
+	 */
+	public boolean save() {
+		// Copied first so a concurrent register() cannot change the count.
+		List<Map.Entry<String, Object>> entries = List.copyOf(counters.entrySet());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(bytes)){
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(System.currentTimeMillis());
+			out.writeInt(entries.size());
+			for(Map.Entry<String, Object> entry : entries) {
+				Object counter = entry.getValue();
+				if(counter instanceof PerSecondExponentialRateCounter) {
+					PerSecondExponentialRateCounter c =
+							(PerSecondExponentialRateCounter)counter;
+					writeHeader(out, PER_SECOND, entry.getKey(), c.getEmaPeriod());
+					writeState(out, c.exportState());
+				}else if(counter instanceof PerMinuteExponentialRateCounter) {
+					PerMinuteExponentialRateCounter c =
+							(PerMinuteExponentialRateCounter)counter;
+					writeHeader(out, PER_MINUTE, entry.getKey(), c.getEmaPeriod());
+					writeState(out, c.exportState());
+				}else {
+					CounterRegistry r = (CounterRegistry)counter;
+					CounterRegistry.State state = r.exportState();
+					writeHeader(out, REGISTRY, entry.getKey(), r.getEmaPeriod());
+					out.writeLong(r.getUnitMillis());
+					out.writeInt(state.names.length);
+					for(int i = 0; i < state.names.length; i++) {
+						out.writeUTF(state.names[i]);
+						out.writeDouble(state.counts[i]);
+						out.writeDouble(state.ages[i]);
+					}
+				}
+			}
+		}catch(IOException e) {
+			return false;
+		}
+		return tryWriteBytes(file, bytes.toByteArray());
+	}
+
+	/**
+	 * Private helper method writing the common header of a snapshot entry.
+	 * 
+	 * @param out       The output to write to.
+	 * @param kind      The kind of counter.
+	 * @param name      The registered name.
+	 * @param emaPeriod The exponential moving average period.
+	 * @throws IOException Thrown if writing failed.
+	 * @since 0.0.1
+	 */
+	private static void writeHeader(DataOutputStream out, byte kind,
+			String name, int emaPeriod) throws IOException {
+		out.writeByte(kind);
+		out.writeUTF(name);
+		out.writeInt(emaPeriod);
+	}
+
+	/**
+	 * Private helper method writing an exported count and timestamp age.
+	 * 
+	 * @param out   The output to write to.
+	 * @param state The exported count and age.
+	 * @throws IOException Thrown if writing failed.
+	 * @since 0.0.1
+	 */
+	private static void writeState(DataOutputStream out, double[] state)
+			throws IOException {
+		out.writeDouble(state[0]);
+		out.writeDouble(state[1]);
+	}
+
+	/**
+	 * Restores every registered counter found in the snapshot file,
+	 * decaying the downtime since the snapshot was written. Counters missing
+	 * from the snapshot, or snapshotted with a different kind or period, are
+	 * left untouched.
+	 * 
+	 * @return The number of counters restored; 0 if there was no readable
+	 *         snapshot.
+	 * @since 0.0.1
+	 */
+	public int restore() {
+		byte[] data = tryReadBytes(file);
+		if(data == null)return 0;
+
+		int restored = 0;
+		try(DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(data))){
+			if(in.readInt() != MAGIC || in.readInt() != VERSION)return 0;
+			double downtime = Math.max(0,
+					System.currentTimeMillis() - in.readLong());
+			int entries = in.readInt();
+			for(int e = 0; e < entries; e++) {
+				byte kind = in.readByte();
+				Object counter = counters.get(in.readUTF());
+				int emaPeriod = in.readInt();
+				if(kind == REGISTRY) {
+					long unitMillis = in.readLong();
+					int n = in.readInt();
+					CounterRegistry.State state = new CounterRegistry.State(
+							new String[n], new double[n], new double[n]);
+					for(int i = 0; i < n; i++) {
+						state.names[i] = in.readUTF();
+						state.counts[i] = in.readDouble();
+						state.ages[i] = in.readDouble();
+					}
+					if(counter instanceof CounterRegistry
+							&& ((CounterRegistry)counter).getEmaPeriod() == emaPeriod
+							&& ((CounterRegistry)counter).getUnitMillis() == unitMillis) {
+						restored += ((CounterRegistry)counter)
+								.restoreState(state, downtime);
+					}
+				}else {
+					double count = in.readDouble();
+					double age = in.readDouble() + downtime;
+					if(kind == PER_SECOND
+							&& counter instanceof PerSecondExponentialRateCounter
+							&& ((PerSecondExponentialRateCounter)counter)
+									.getEmaPeriod() == emaPeriod) {
+						((PerSecondExponentialRateCounter)counter)
+								.restoreState(count, age);
+						restored++;
+					}else if(kind == PER_MINUTE
+							&& counter instanceof PerMinuteExponentialRateCounter
+							&& ((PerMinuteExponentialRateCounter)counter)
+									.getEmaPeriod() == emaPeriod) {
+						((PerMinuteExponentialRateCounter)counter)
+								.restoreState(count, age);
+						restored++;
+					}
+				}
+			}
+		}catch(IOException | IllegalStateException e) {
+			// A truncated snapshot or a full registry keeps what was restored.
+		}
+		return restored;
+	}
+
+	/**
+	 * Starts writing snapshots on a background daemon thread at a fixed
+	 * rate. Has no effect when already started.
+	 * 
+	 * @param intervalMillis The interval between snapshots in milliseconds.
+	 * @since 0.0.1
+	 */
+	public synchronized void start(long intervalMillis) {
+		if(scheduler != null)return;
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "CounterSnapshotter");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleWithFixedDelay(this::save, intervalMillis,
+				intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background snapshots, if started, and writes a final
+	 * snapshot.
+	 * 
+	 * @since 0.0.1
+	 */
+	@Override
+	public synchronized void close() {
+		if(scheduler != null) {
+			scheduler.shutdown();
+			scheduler = null;
+		}
+		save();
+	}
+}
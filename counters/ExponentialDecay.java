@@ -0,0 +1,78 @@
+/*  Original Licensing Copyright
+ * 
+ *  Closed form of the exponential moving average decay steps.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+/**
+ * Closed form of the exponential moving average decay steps shared by the
+ * rate counters. Each step moves the timestamp towards now by emaRate and
+ * scales the count by emaRate2; steps repeat while more than a period has
+ * elapsed since the timestamp.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+final class ExponentialDecay {
+	private ExponentialDecay() {}
+
+	/**
+	 * Calculates emaRate2 raised to the number of decay steps which would be
+	 * applied for the elapsed time, in constant time regardless of how long
+	 * the counter was idle. Both the count and the elapsed time since the
+	 * timestamp are scaled by the returned factor.
+	 * 
+	 * @param elapsed      The time elapsed since the timestamp.
+	 * @param periodMillis The period in the same unit as elapsed.
+	 * @param emaRate2     The per step decay; 1 - emaRate.
+	 * @return The decay factor; 1.0 when no step is due.
+	 * @since 0.0.1
+	 */
+	static double factor(double elapsed, double periodMillis, double emaRate2) {
+		return factor(elapsed, periodMillis, emaRate2, Math.log(emaRate2));
+	}
+
+	/**
+	 * Calculates the decay factor like
+	 * {@link #factor(double, double, double)} with the logarithm of emaRate2
+	 * precomputed by the caller, for sweeps over many counters sharing one
+	 * period.
+	 * 
+	 * @param elapsed      The time elapsed since the timestamp.
+	 * @param periodMillis The period in the same unit as elapsed.
+	 * @param emaRate2     The per step decay; 1 - emaRate.
+	 * @param logRate2     The natural logarithm of emaRate2.
+	 * @return The decay factor; 1.0 when no step is due.
+	 * @since 0.0.2
+	 */
+	static double factor(double elapsed, double periodMillis, double emaRate2,
+			double logRate2) {
+		if(!(elapsed > periodMillis))return 1.0;
+		double steps = Math.ceil(Math.log(periodMillis / elapsed) / logRate2);
+		if(steps < 1)steps = 1;
+		double factor = Math.pow(emaRate2, steps);
+
+		// Correct the step count for rounding in the logarithms.
+		if(factor * elapsed > periodMillis) {
+			factor *= emaRate2;
+		}else if(steps > 1 && factor / emaRate2 * elapsed <= periodMillis) {
+			factor /= emaRate2;
+		}
+		return factor;
+	}
+}
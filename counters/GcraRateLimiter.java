@@ -0,0 +1,252 @@
+/*  Original Licensing Copyright
+ * 
+ *  Lock-free rate limiter implementing the generic cell rate algorithm.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread-safe, lock-free rate limiter implementing the Generic Cell Rate
+ * Algorithm. The whole state is the theoretical arrival time of the next
+ * permit held in a single {@link AtomicLong}, so {@link #tryAcquire(int)}
+ * is one compare-and-set in the uncontended case. Up to burst permits may be
+ * acquired at once after the limiter has been idle; beyond that permits are
+ * granted at the configured rate.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ * @see <a href=https://en.wikipedia.org/wiki/Generic_cell_rate_algorithm>
+ * 		Wikipedia - Generic cell rate algorithm</a>
+ */
+public class GcraRateLimiter {
+	private final long emissionNanos;
+	private final long toleranceNanos;
+	private final int burst;
+	private final TickClock clock;
+	private final AtomicLong tat;
+
+	/**
+	 * Constructs a rate limiter using the monotonic clock.
+	 * 
+	 * @param permitsPerSecond The sustained rate at which permits are
+	 *                         granted.
+	 * @param burst            The number of permits which may be acquired at
+	 *                         once after being idle.
+	 * @throws IllegalArgumentException Thrown when permitsPerSecond is not
+	 *                                  positive or burst is less than 1.
+	 * @since 0.0.1
+	 */
+	public GcraRateLimiter(double permitsPerSecond, int burst) {
+		this(permitsPerSecond, burst, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs a rate limiter reading time from a specified clock.
+	 * 
+	 * @param permitsPerSecond The sustained rate at which permits are
+	 *                         granted.
+	 * @param burst            The number of permits which may be acquired at
+	 *                         once after being idle.
+	 * @param clock            The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when permitsPerSecond is not
+	 *                                  positive or burst is less than 1.
+	 * @since 0.0.1
+	 */
+	public GcraRateLimiter(double permitsPerSecond, int burst,
+			TickClock clock) {
+		this.emissionNanos = emissionNanos(permitsPerSecond);
+		this.toleranceNanos = toleranceNanos(emissionNanos, burst);
+		this.burst = burst;
+		this.clock = clock;
+		this.tat = new AtomicLong(clock.nanoTime());
+	}
+
+	/**
+	 * Attempts to acquire a single permit without blocking.
+	 * 
+	 * @return True if the permit was acquired.
+	 * @since 0.0.1
+	 */
+	public boolean tryAcquire() {
+		return tryAcquire(1);
+	}
+
+	/**
+	 * Attempts to acquire a number of permits without blocking.
+	 * 
+	 * @param permits The number of permits to acquire.
+	 * @return True if the permits were acquired.
+	 * @throws IllegalArgumentException Thrown when permits is less than 1 or
+	 *                                  greater than the burst.
+	 * @since 0.0.1
+	 */
+	public boolean tryAcquire(int permits) {
+		checkPermits(permits, burst);
+		return tryAcquire(tat, clock.nanoTime(), permits * emissionNanos,
+				toleranceNanos);
+	}
+
+	/**
+	 * Acquires a single permit, parking the calling thread until it is
+	 * available.
+	 * 
+	 * @throws InterruptedException Thrown if interrupted while parked; the
+	 *                              permit stays consumed.
+	 * @since 0.0.1
+	 */
+	public void acquire() throws InterruptedException {
+		acquire(1);
+	}
+
+	/**
+	 * Acquires a number of permits, parking the calling thread until they
+	 * are available. The permits are reserved with a single
+	 * compare-and-set before parking, so waiting callers are served in the
+	 * order they reserved.
+	 * 
+	 * @param permits The number of permits to acquire.
+	 * @throws IllegalArgumentException Thrown when permits is less than 1 or
+	 *                                  greater than the burst.
+	 * @throws InterruptedException     Thrown if interrupted while parked;
+	 *                                  the permits stay consumed.
+	 * @since 0.0.1
+	 */
+	public void acquire(int permits) throws InterruptedException {
+		checkPermits(permits, burst);
+		park(clock, reserve(tat, clock.nanoTime(), permits * emissionNanos,
+				toleranceNanos));
+	}
+
+	/**
+	 * Returns the sustained rate of this limiter.
+	 * 
+	 * @return The permits granted per second.
+	 * @since 0.0.1
+	 */
+	public double getPermitsPerSecond() {
+		return 1e9 / emissionNanos;
+	}
+
+	/**
+	 * Returns the burst of this limiter.
+	 * 
+	 * @return The number of permits which may be acquired at once.
+	 * @since 0.0.1
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * Converts a rate into the interval between permits.
+	 * 
+	 * @param permitsPerSecond The sustained rate.
+	 * @return The nanoseconds between permits.
+	 * @since 0.0.1
+	 */
+	static long emissionNanos(double permitsPerSecond) {
+		if(!(permitsPerSecond > 0))throw new IllegalArgumentException(
+				"permitsPerSecond must be positive.");
+		return Math.max(1, Math.round(1e9 / permitsPerSecond));
+	}
+
+	/**
+	 * Converts a burst into how far ahead of now the theoretical arrival
+	 * time may be.
+	 * 
+	 * @param emissionNanos The nanoseconds between permits.
+	 * @param burst         The burst.
+	 * @return The tolerance in nanoseconds.
+	 * @since 0.0.1
+	 */
+	static long toleranceNanos(long emissionNanos, int burst) {
+		if(burst < 1)throw new IllegalArgumentException(
+				"burst cannot be less than 1.");
+		return emissionNanos * burst;
+	}
+
+	/**
+	 * Validates a number of permits against a burst.
+	 * 
+	 * @param permits The number of permits requested.
+	 * @param burst   The burst of the limiter.
+	 * @since 0.0.1
+	 */
+	static void checkPermits(int permits, int burst) {
+		if(permits < 1 || permits > burst)throw new IllegalArgumentException(
+				"permits must be between 1 and the burst of " + burst + ".");
+	}
+
+	/**
+	 * Attempts to advance a theoretical arrival time by a cost.
+	 * 
+	 * @param tat       The theoretical arrival time.
+	 * @param now       The current time in nanoseconds.
+	 * @param cost      The nanoseconds the permits cost.
+	 * @param tolerance The tolerance in nanoseconds.
+	 * @return True if the permits were acquired.
+	 * @since 0.0.1
+	 */
+	static boolean tryAcquire(AtomicLong tat, long now, long cost,
+			long tolerance) {
+		for(;;) {
+			long prev = tat.get();
+			long next = Math.max(prev, now) + cost;
+			if(next - now > tolerance)return false;
+			if(tat.compareAndSet(prev, next))return true;
+		}
+	}
+
+	/**
+	 * Unconditionally advances a theoretical arrival time by a cost.
+	 * 
+	 * @param tat       The theoretical arrival time.
+	 * @param now       The current time in nanoseconds.
+	 * @param cost      The nanoseconds the permits cost.
+	 * @param tolerance The tolerance in nanoseconds.
+	 * @return The time at which the reserved permits may be used.
+	 * @since 0.0.1
+	 */
+	static long reserve(AtomicLong tat, long now, long cost, long tolerance) {
+		long prev, next;
+		do {
+			prev = tat.get();
+			next = Math.max(prev, now) + cost;
+		}while(!tat.compareAndSet(prev, next));
+		return next - tolerance;
+	}
+
+	/**
+	 * Parks the calling thread until a specified time.
+	 * 
+	 * @param clock    The clock the deadline was read from.
+	 * @param deadline The time to wait until in nanoseconds.
+	 * @throws InterruptedException Thrown if interrupted while parked.
+	 * @since 0.0.1
+	 */
+	static void park(TickClock clock, long deadline)
+			throws InterruptedException {
+		long wait;
+		while((wait = deadline - clock.nanoTime()) > 0) {
+			LockSupport.parkNanos(wait);
+			if(Thread.interrupted())throw new InterruptedException();
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*  Original Licensing Copyright
+ * 
+ *  Lock-free per key rate limiter with bounded memory.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe per key rate limiter applying the same rate and burst to every
+ * key with the algorithm of {@link GcraRateLimiter}. Each key costs one
+ * {@link AtomicLong}, and at most maxKeys keys are tracked.
+ * <p>
+ * A key is idle once its theoretical arrival time has passed, at which point
+ * its state is indistinguishable from a new key and it can be forgotten.
+ * When the limit is reached, a new key makes room by advancing a clock hand
+ * over the tracked keys, forgetting idle keys it passes; if it finds none
+ * within a small budget it forgets the key under the hand anyway. Admitting
+ * a key thus costs constant time however many keys are tracked. Idle keys
+ * can also be expired on demand through {@link #expireIdle()}. Forgetting a
+ * throttled key can only make the limiter more permissive for that key,
+ * never block a caller wrongly.
+ * 
+ * @param <K> The type of the keys.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public class KeyedRateLimiter<K> {
+	/** Keys the clock hand may pass over before forgetting a throttled key. */
+	private static final int SWEEP_BUDGET = 16;
+
+	private final long emissionNanos;
+	private final long toleranceNanos;
+	private final int burst;
+	private final int maxKeys;
+	private final TickClock clock;
+	private final ConcurrentHashMap<K, AtomicLong> tats;
+	private final ReentrantLock sweepLock = new ReentrantLock();
+	/** The clock hand; guarded by sweepLock. */
+	private Iterator<Map.Entry<K, AtomicLong>> hand;
+
+	/**
+	 * Constructs a per key rate limiter using the monotonic clock.
+	 * 
+	 * @param permitsPerSecond The sustained rate at which permits are
+	 *                         granted to each key.
+	 * @param burst            The number of permits which may be acquired at
+	 *                         once by an idle key.
+	 * @param maxKeys          The maximum number of keys tracked.
+	 * @throws IllegalArgumentException Thrown when permitsPerSecond is not
+	 *                                  positive, or burst or maxKeys is less
+	 *                                  than 1.
+	 * @since 0.0.1
+	 */
+	public KeyedRateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+		this(permitsPerSecond, burst, maxKeys, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs a per key rate limiter reading time from a specified clock.
+	 * 
+	 * @param permitsPerSecond The sustained rate at which permits are
+	 *                         granted to each key.
+	 * @param burst            The number of permits which may be acquired at
+	 *                         once by an idle key.
+	 * @param maxKeys          The maximum number of keys tracked.
+	 * @param clock            The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when permitsPerSecond is not
+	 *                                  positive, or burst or maxKeys is less
+	 *                                  than 1.
+	 * @since 0.0.1
+	 */
+	public KeyedRateLimiter(double permitsPerSecond, int burst, int maxKeys,
+			TickClock clock) {
+		if(maxKeys < 1)throw new IllegalArgumentException(
+				"maxKeys cannot be less than 1.");
+		this.emissionNanos = GcraRateLimiter.emissionNanos(permitsPerSecond);
+		this.toleranceNanos = GcraRateLimiter.toleranceNanos(emissionNanos, burst);
+		this.burst = burst;
+		this.maxKeys = maxKeys;
+		this.clock = clock;
+		this.tats = new ConcurrentHashMap<>(Math.min(maxKeys, 1 << 16));
+	}
+
+	/**
+	 * Attempts to acquire a single permit for a key without blocking.
+	 * 
+	 * @param key The key acquiring the permit.
+	 * @return True if the permit was acquired.
+	 * @since 0.0.1
+	 */
+	public boolean tryAcquire(K key) {
+		return tryAcquire(key, 1);
+	}
+
+	/**
+	 * Attempts to acquire a number of permits for a key without blocking.
+	 * 
+	 * @param key     The key acquiring the permits.
+	 * @param permits The number of permits to acquire.
+	 * @return True if the permits were acquired.
+	 * @throws IllegalArgumentException Thrown when permits is less than 1 or
+	 *                                  greater than the burst.
+	 * @since 0.0.1
+	 */
+	public boolean tryAcquire(K key, int permits) {
+		GcraRateLimiter.checkPermits(permits, burst);
+		long now = clock.nanoTime();
+		return GcraRateLimiter.tryAcquire(tat(key, now), now,
+				permits * emissionNanos, toleranceNanos);
+	}
+
+	/**
+	 * Acquires a number of permits for a key, parking the calling thread
+	 * until they are available.
+	 * 
+	 * @param key     The key acquiring the permits.
+	 * @param permits The number of permits to acquire.
+	 * @throws IllegalArgumentException Thrown when permits is less than 1 or
+	 *                                  greater than the burst.
+	 * @throws InterruptedException     Thrown if interrupted while parked;
+	 *                                  the permits stay consumed.
+	 * @since 0.0.1
+	 */
+	public void acquire(K key, int permits) throws InterruptedException {
+		GcraRateLimiter.checkPermits(permits, burst);
+		long now = clock.nanoTime();
+		GcraRateLimiter.park(clock, GcraRateLimiter.reserve(tat(key, now),
+				now, permits * emissionNanos, toleranceNanos));
+	}
+
+	/**
+	 * Private helper method returning the theoretical arrival time of a key,
+	 * making room for it first when the key limit is reached.
+	 * 
+	 * @param key The key.
+	 * @param now The current time in nanoseconds.
+	 * @return The theoretical arrival time of the key.
+	 * @since 0.0.1
+	 */
+	private AtomicLong tat(K key, long now) {
+		AtomicLong tat = tats.get(key);
+		if(tat != null)return tat;
+		if(tats.size() >= maxKeys)makeRoom(now);
+		return tats.computeIfAbsent(key, k -> new AtomicLong(now));
+	}
+
+	/**
+	 * Private helper method advancing the clock hand until the tracked keys
+	 * are below the limit, forgetting idle keys and, after
+	 * {@value #SWEEP_BUDGET} throttled keys in a row, the key under the hand.
+	 * 
+	 * @param now The current time in nanoseconds.
+	 * @since 0.0.2
+	 */
+	private void makeRoom(long now) {
+		sweepLock.lock();
+		try {
+			int throttled = 0;
+			while(tats.size() >= maxKeys) {
+				if(hand == null || !hand.hasNext()) {
+					hand = tats.entrySet().iterator();
+					if(!hand.hasNext())return;
+				}
+				if(hand.next().getValue().get() - now <= 0
+						|| ++throttled > SWEEP_BUDGET) {
+					hand.remove();
+					throttled = 0;
+				}
+			}
+		}finally {
+			sweepLock.unlock();
+		}
+	}
+
+	/**
+	 * Forgets every key whose theoretical arrival time has passed.
+	 * 
+	 * @return The number of keys forgotten.
+	 * @since 0.0.1
+	 */
+	public int expireIdle() {
+		long now = clock.nanoTime();
+		int before = tats.size();
+		tats.values().removeIf(tat -> tat.get() - now <= 0);
+		return before - tats.size();
+	}
+
+	/**
+	 * Returns the number of keys currently tracked.
+	 * 
+	 * @return The number of keys currently tracked.
+	 * @since 0.0.1
+	 */
+	public int size() {
+		return tats.size();
+	}
+}
@@ -0,0 +1,335 @@
+/*  Original Licensing Copyright
+ * 
+ *  Thread-safe approximate per key exponential average rate tracker.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe tracker of approximate per key Exponential Moving Average
+ * rates in fixed memory. Ticks are counted in a count-min sketch of depth
+ * rows by width columns, so the rate of any key can be estimated no matter
+ * how many distinct keys are seen; estimates never undercount and overcount
+ * by hash collisions only. The keys with the highest estimates are kept in a
+ * bounded top-K set.
+ * <p>
+ * The sketch decays with the same formula and period semantics as
+ * {@link PerSecondExponentialRateCounter} and
+ * {@link PerMinuteExponentialRateCounter}. Ticks are lock-free CAS updates;
+ * the occasional decay of the sketch is performed by whichever tick first
+ * observes an elapsed period and acquires the decay lock without waiting,
+ * and the top-K set is only locked when a key not yet in it overtakes the
+ * smallest tracked estimate.
+ * 
+ * @param <K> The type of the tracked keys.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class KeyedRateTracker<K> {
+	private static final VarHandle CELLS =
+			MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int emaPeriod;
+	private final double emaRate2, periodMillis, unitMillis;
+	private final TickClock clock;
+	private final int depth, widthMask, widthBits, k;
+	/** Raw bits of the double count in each cell, row major; CAS updated. */
+	private final long[] cells;
+	private final Set<K> top = ConcurrentHashMap.newKeySet();
+	private final ReentrantLock decayLock = new ReentrantLock();
+
+	/** Guarded by decayLock. */
+	private double ts;
+	private volatile double foldAfter;
+	/** The smallest estimate a key needs to enter a full top-K set. */
+	private volatile double topThreshold = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Constructs a tracker using the monotonic clock.
+	 * 
+	 * @param emaPeriod The exponential moving average period in the specified
+	 *                  unit.
+	 * @param unit      The unit of both the period and the polled rates.
+	 * @param k         The number of heavy hitters to keep.
+	 * @param width     The number of columns of the sketch; rounded up to a
+	 *                  power of two.
+	 * @param depth     The number of rows of the sketch.
+	 * @throws IllegalArgumentException Thrown when emaPeriod is less than 2,
+	 *                                  unit is finer than milliseconds, or
+	 *                                  k, width or depth is less than 1.
+	 * @since 0.0.1
+	 */
+	public KeyedRateTracker(int emaPeriod, TimeUnit unit, int k, int width,
+			int depth) {
+		this(emaPeriod, unit, k, width, depth, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs a tracker reading time from a specified clock.
+	 * 
+	 * @param emaPeriod The exponential moving average period in the specified
+	 *                  unit.
+	 * @param unit      The unit of both the period and the polled rates.
+	 * @param k         The number of heavy hitters to keep.
+	 * @param width     The number of columns of the sketch; rounded up to a
+	 *                  power of two.
+	 * @param depth     The number of rows of the sketch.
+	 * @param clock     The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when emaPeriod is less than 2,
+	 *                                  unit is finer than milliseconds, or
+	 *                                  k, width or depth is less than 1.
+	 * @since 0.0.1
+	 */
+	public KeyedRateTracker(int emaPeriod, TimeUnit unit, int k, int width,
+			int depth, TickClock clock) {
+		if(emaPeriod < 2)throw new IllegalArgumentException(
+				"emaPeriod cannot be less than 2.");
+		if(unit.toMillis(1) < 1)throw new IllegalArgumentException(
+				"unit cannot be finer than milliseconds.");
+		if(k < 1 || width < 1 || depth < 1)throw new IllegalArgumentException(
+				"k, width and depth cannot be less than 1.");
+		if(width > 1 << 24)throw new IllegalArgumentException(
+				"width cannot be greater than 2^24.");
+		this.emaPeriod = emaPeriod;
+		this.emaRate2 = 1.0 - 2.0 / (emaPeriod + 1.0);
+		this.unitMillis = unit.toMillis(1);
+		this.periodMillis = emaPeriod * unitMillis;
+		this.clock = clock;
+		this.k = k;
+		this.depth = depth;
+		this.widthBits = 32 - Integer.numberOfLeadingZeros(width - 1);
+		this.widthMask = (1 << widthBits) - 1;
+		this.cells = new long[depth << widthBits];
+		this.ts = clock.millis();
+		this.foldAfter = ts + periodMillis;
+	}
+
+	/**
+	 * Increments the counter of a key by 1; thread-safe.
+	 * 
+	 * @param key The key to tick.
+	 * @since 0.0.1
+	 */
+	public void tick(K key) {
+		tick(key, 1);
+	}
+
+	/**
+	 * Increments the counter of a key by a custom amount; thread-safe.
+	 * 
+	 * @param key    The key to tick.
+	 * @param amount The amount to be incremented in the counter.
+	 * @since 0.0.1
+	 */
+	public void tick(K key, double amount) {
+		long hash = key.hashCode();
+		double estimate = Double.POSITIVE_INFINITY;
+		for(int row = 0; row < depth; row++) {
+			int cell = cell(hash, row);
+			long prev;
+			double next;
+			do {
+				prev = (long)CELLS.getVolatile(cells, cell);
+				next = Double.longBitsToDouble(prev) + amount;
+			}while(!CELLS.weakCompareAndSet(cells, cell, prev,
+					Double.doubleToRawLongBits(next)));
+			estimate = Math.min(estimate, next);
+		}
+
+		if(estimate > topThreshold && !top.contains(key))offer(key, estimate);
+		if(clock.millis() > foldAfter && decayLock.tryLock()) {
+			try {
+				decay(clock.millis());
+			}finally {
+				decayLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Polls the estimated exponential moving average rate of a key.
+	 * Thread-safe.
+	 * 
+	 * @param key The key to poll.
+	 * @return The estimated rate per unit.
+	 * @since 0.0.1
+	 */
+	public double poll(K key) {
+		decayLock.lock();
+		try {
+			double now = clock.millis();
+			decay(now);
+			return estimate(key.hashCode()) * unitMillis / (now - ts);
+		}finally {
+			decayLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the tracked heavy hitters with their estimated rates, highest
+	 * first. Thread-safe.
+	 * 
+	 * @return Up to k keys and their estimated rates per unit.
+	 * @since 0.0.1
+	 */
+	public List<Map.Entry<K, Double>> topK() {
+		List<Map.Entry<K, Double>> ret = new ArrayList<>(k);
+		decayLock.lock();
+		try {
+			double now = clock.millis();
+			decay(now);
+			for(K key : top) {
+				ret.add(new AbstractMap.SimpleImmutableEntry<>(key,
+						estimate(key.hashCode()) * unitMillis / (now - ts)));
+			}
+		}finally {
+			decayLock.unlock();
+		}
+		ret.sort(Map.Entry.<K, Double>comparingByValue().reversed());
+		return ret;
+	}
+
+	/**
+	 * Private helper method admitting a key into the top-K set when there is
+	 * room or its estimate beats the smallest tracked estimate.
+	 * 
+	 * @param key      The key to admit.
+	 * @param estimate The current estimate of the key.
+	 * @since 0.0.1
+	 */
+	private void offer(K key, double estimate) {
+		synchronized(top) {
+			if(top.contains(key))return;
+			if(top.size() < k) {
+				top.add(key);
+				if(top.size() == k)topThreshold = smallestTracked(null);
+				return;
+			}
+
+			Object[] evict = new Object[1];
+			double smallest = smallestTracked(evict);
+			if(estimate > smallest) {
+				top.remove(evict[0]);
+				top.add(key);
+				topThreshold = smallestTracked(null);
+			}else {
+				topThreshold = smallest;
+			}
+		}
+	}
+
+	/**
+	 * Private helper method returning the smallest current estimate in the
+	 * top-K set.
+	 * 
+	 * @param smallestKey An array receiving the key with the smallest
+	 *                    estimate at index 0; may be null.
+	 * @return The smallest estimate.
+	 * @since 0.0.1
+	 */
+	private double smallestTracked(Object[] smallestKey) {
+		double smallest = Double.POSITIVE_INFINITY;
+		for(K key : top) {
+			double e = estimate(key.hashCode());
+			if(e < smallest) {
+				smallest = e;
+				if(smallestKey != null)smallestKey[0] = key;
+			}
+		}
+		return smallest;
+	}
+
+	/**
+	 * Private helper method applying all elapsed decay steps to every cell
+	 * of the sketch. Must hold the decay lock.
+	 * 
+	 * @param now The current time in milliseconds.
+	 * @since 0.0.1
+	 */
+	private void decay(double now) {
+		double elapsed = now - ts;
+		double factor = ExponentialDecay.factor(elapsed, periodMillis, emaRate2);
+		if(factor < 1.0) {
+			ts = now - factor * elapsed;
+			for(int i = 0; i < cells.length; i++) {
+				long prev;
+				do {
+					prev = (long)CELLS.getVolatile(cells, i);
+				}while(prev != 0 && !CELLS.weakCompareAndSet(cells, i, prev,
+						Double.doubleToRawLongBits(
+								Double.longBitsToDouble(prev) * factor)));
+			}
+			topThreshold = topThreshold * factor;
+		}
+		foldAfter = ts + periodMillis;
+	}
+
+	/**
+	 * Private helper method returning the count-min estimate of a key.
+	 * 
+	 * @param hash The hash code of the key.
+	 * @return The smallest count among the key's cells.
+	 * @since 0.0.1
+	 */
+	private double estimate(long hash) {
+		double estimate = Double.POSITIVE_INFINITY;
+		for(int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, Double.longBitsToDouble(
+					(long)CELLS.getVolatile(cells, cell(hash, row))));
+		}
+		return estimate;
+	}
+
+	/**
+	 * Private helper method hashing a key onto its cell in a row with an
+	 * independent mix per row.
+	 * 
+	 * @param hash The hash code of the key.
+	 * @param row  The row of the sketch.
+	 * @return The index of the cell.
+	 * @since 0.0.1
+	 */
+	private int cell(long hash, int row) {
+		long h = hash + (row + 1) * 0x9E3779B97F4A7C15L;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		h ^= h >>> 31;
+		return (row << widthBits) | ((int)h & widthMask);
+	}
+
+	/**
+	 * Returns the exponential moving average period.
+	 * 
+	 * @return The exponential moving average period.
+	 * @since 0.0.1
+	 */
+	public int getEmaPeriod() {
+		return emaPeriod;
+	}
+}
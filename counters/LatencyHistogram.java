@@ -0,0 +1,368 @@
+/*  Original Licensing Copyright
+ * 
+ *  Thread-safe log-linear latency histogram.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of non-negative long values such as latencies in
+ * nanoseconds. Values are counted in log-linear buckets: each power of two
+ * is split into 2^precisionBits linear sub-buckets, bounding the relative
+ * error of a reported value by 2^-precisionBits. Writers are spread over
+ * several stripes of counts to avoid contending on the same cache lines, and
+ * recording allocates nothing.
+ * <p>
+ * A {@link PerSecondExponentialRateCounter} may be attached on construction
+ * so that every recorded value also ticks the rate counter.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class LatencyHistogram {
+	private static final int MAX_STRIPES = 16;
+
+	private final int precisionBits;
+	private final int bucketCount;
+	private final int stripeMask;
+	private final AtomicLongArray counts;
+	private final PerSecondExponentialRateCounter rateCounter;
+
+	/**
+	 * Constructs a histogram with 5 bits of precision, bounding the relative
+	 * error of reported values by about 3%.
+	 * 
+	 * @since 0.0.1
+	 */
+	public LatencyHistogram() {
+		this(5, null);
+	}
+
+	/**
+	 * Constructs a histogram with 5 bits of precision which also ticks a
+	 * specified rate counter for every recorded value.
+	 * 
+	 * @param rateCounter The rate counter to tick; may be null.
+	 * @since 0.0.1
+	 */
+	public LatencyHistogram(PerSecondExponentialRateCounter rateCounter) {
+		this(5, rateCounter);
+	}
+
+	/**
+	 * Constructs a histogram with a specified precision which also ticks a
+	 * specified rate counter for every recorded value.
+	 * 
+	 * @param precisionBits The number of linear sub-bucket bits per power of
+	 *                      two; between 1 and 10.
+	 * @param rateCounter   The rate counter to tick; may be null.
+	 * @throws IllegalArgumentException Thrown when precisionBits is out of
+	 *                                  range.
+	 * @since 0.0.1
+	 */
+	public LatencyHistogram(int precisionBits,
+			PerSecondExponentialRateCounter rateCounter) {
+		if(precisionBits < 1 || precisionBits > 10)
+			throw new IllegalArgumentException(
+					"precisionBits must be between 1 and 10.");
+		int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(
+				Runtime.getRuntime().availableProcessors() * 2 - 1));
+		this.precisionBits = precisionBits;
+		this.bucketCount = bucketCount(precisionBits);
+		this.stripeMask = stripes - 1;
+		this.counts = new AtomicLongArray(stripes * bucketCount);
+		this.rateCounter = rateCounter;
+	}
+
+	/**
+	 * Records a single value; thread-safe and allocation-free. Negative
+	 * values are recorded as 0.
+	 * 
+	 * @param value The value to record.
+	 * @since 0.0.1
+	 */
+	public void record(long value) {
+		record(value, 1);
+	}
+
+	/**
+	 * Records a value a specified number of times; thread-safe and
+	 * allocation-free. Negative values are recorded as 0.
+	 * 
+	 * @param value The value to record.
+	 * @param times The number of times to record the value.
+	 * @since 0.0.1
+	 */
+	public void record(long value, long times) {
+		int stripe = (int)Thread.currentThread().getId() & stripeMask;
+		counts.getAndAdd(stripe * bucketCount
+				+ index(Math.max(0, value), precisionBits), times);
+		if(rateCounter != null)rateCounter.tick(times);
+	}
+
+	/**
+	 * Records the nanoseconds elapsed since a specified
+	 * {@link System#nanoTime()} reading.
+	 * 
+	 * @param startNanos The {@link System#nanoTime()} reading at the start.
+	 * @since 0.0.1
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Adds the counts of a snapshot to this histogram.
+	 * 
+	 * @param snapshot The snapshot to merge into this histogram.
+	 * @throws IllegalArgumentException Thrown when the snapshot has a
+	 *                                  different precision.
+	 * @since 0.0.1
+	 */
+	public void merge(Snapshot snapshot) {
+		if(snapshot.precisionBits != precisionBits)
+			throw new IllegalArgumentException(
+					"Cannot merge histograms of different precision.");
+		for(int i = 0; i < bucketCount; i++) {
+			if(snapshot.counts[i] != 0)counts.getAndAdd(i, snapshot.counts[i]);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of all values recorded so far.
+	 * 
+	 * @return A snapshot of the histogram.
+	 * @since 0.0.1
+	 */
+	public Snapshot snapshot() {
+		long[] merged = new long[bucketCount];
+		for(int i = 0; i < counts.length(); i++) {
+			merged[i % bucketCount] += counts.get(i);
+		}
+		return new Snapshot(precisionBits, merged);
+	}
+
+	/**
+	 * Returns a snapshot of the values recorded since the previous interval
+	 * snapshot and resets the histogram. Values recorded concurrently are
+	 * counted in exactly one interval.
+	 * 
+	 * @return A snapshot of the interval.
+	 * @since 0.0.1
+	 */
+	public Snapshot intervalSnapshot() {
+		long[] merged = new long[bucketCount];
+		for(int i = 0; i < counts.length(); i++) {
+			if(counts.get(i) != 0)merged[i % bucketCount] += counts.getAndSet(i, 0);
+		}
+		return new Snapshot(precisionBits, merged);
+	}
+
+	/**
+	 * Returns the rate counter ticked by this histogram.
+	 * 
+	 * @return The rate counter; null if none was attached.
+	 * @since 0.0.1
+	 */
+	public PerSecondExponentialRateCounter getRateCounter() {
+		return rateCounter;
+	}
+
+	/**
+	 * Private helper method returning the number of buckets needed to cover
+	 * every non-negative long.
+	 * 
+	 * @param precisionBits The number of linear sub-bucket bits.
+	 * @return The number of buckets.
+	 * @since 0.0.1
+	 */
+	private static int bucketCount(int precisionBits) {
+		return (64 - precisionBits) << precisionBits;
+	}
+
+	/**
+	 * Private helper method mapping a non-negative value onto its bucket.
+	 * Values below 2^precisionBits have a bucket each; above that, the
+	 * exponent selects a group and the next precisionBits bits of the
+	 * mantissa select the bucket within it.
+	 * 
+	 * @param value         The non-negative value.
+	 * @param precisionBits The number of linear sub-bucket bits.
+	 * @return The bucket index.
+	 * @since 0.0.1
+	 */
+	static int index(long value, int precisionBits) {
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if(exponent < precisionBits)return (int)value;
+		int shift = exponent - precisionBits;
+		return ((shift + 1) << precisionBits)
+				+ (int)(value >>> shift) - (1 << precisionBits);
+	}
+
+	/**
+	 * Private helper method returning the highest value counted in a bucket.
+	 * 
+	 * @param index         The bucket index.
+	 * @param precisionBits The number of linear sub-bucket bits.
+	 * @return The highest value mapped onto the bucket.
+	 * @since 0.0.1
+	 */
+	static long highestValue(int index, int precisionBits) {
+		int group = index >>> precisionBits;
+		if(group == 0)return index;
+		int shift = group - 1;
+		long mantissa = (index & ((1 << precisionBits) - 1)) + (1L << precisionBits);
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * Immutable point-in-time copy of a {@link LatencyHistogram} supporting
+	 * percentile queries.
+	 * 
+	 * @author DZ-FSDev
+	 * @since 17.0.2
+	 * @version 0.0.1
+	 */
+	public static final class Snapshot {
+		private final int precisionBits;
+		private final long[] counts;
+		private final long totalCount;
+
+		private Snapshot(int precisionBits, long[] counts) {
+			this.precisionBits = precisionBits;
+			this.counts = counts;
+			long total = 0;
+			for(long c : counts)total += c;
+			this.totalCount = total;
+		}
+
+		/**
+		 * Returns the number of recorded values.
+		 * 
+		 * @return The number of recorded values.
+		 * @since 0.0.1
+		 */
+		public long getCount() {
+			return totalCount;
+		}
+
+		/**
+		 * Returns the value at a specified percentile, reported as the
+		 * highest value of its bucket.
+		 * 
+		 * @param percentile The percentile between 0 and 100.
+		 * @return The value at the percentile; 0 when empty.
+		 * @throws IllegalArgumentException Thrown when percentile is out of
+		 *                                  range.
+		 * @since 0.0.1
+		 */
+		public long percentile(double percentile) {
+			if(!(percentile >= 0 && percentile <= 100))
+				throw new IllegalArgumentException(
+						"percentile must be between 0 and 100.");
+			if(totalCount == 0)return 0;
+			long target = Math.max(1,
+					(long)Math.ceil(percentile / 100 * totalCount));
+			long seen = 0;
+			for(int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if(seen >= target)return highestValue(i, precisionBits);
+			}
+			return getMax();
+		}
+
+		/**
+		 * Returns the median value.
+		 * 
+		 * @return The 50th percentile value.
+		 * @since 0.0.1
+		 */
+		public long getP50() {
+			return percentile(50);
+		}
+
+		/**
+		 * Returns the 99th percentile value.
+		 * 
+		 * @return The 99th percentile value.
+		 * @since 0.0.1
+		 */
+		public long getP99() {
+			return percentile(99);
+		}
+
+		/**
+		 * Returns the 99.9th percentile value.
+		 * 
+		 * @return The 99.9th percentile value.
+		 * @since 0.0.1
+		 */
+		public long getP999() {
+			return percentile(99.9);
+		}
+
+		/**
+		 * Returns the highest recorded value, to the precision of its
+		 * bucket.
+		 * 
+		 * @return The highest recorded value; 0 when empty.
+		 * @since 0.0.1
+		 */
+		public long getMax() {
+			for(int i = counts.length - 1; i >= 0; i--) {
+				if(counts[i] != 0)return highestValue(i, precisionBits);
+			}
+			return 0;
+		}
+
+		/**
+		 * Returns the mean of the recorded values, to the precision of their
+		 * buckets.
+		 * 
+		 * @return The mean value; NaN when empty.
+		 * @since 0.0.1
+		 */
+		public double getMean() {
+			double sum = 0;
+			for(int i = 0; i < counts.length; i++) {
+				if(counts[i] != 0)sum += (double)counts[i] * highestValue(i, precisionBits);
+			}
+			return sum / totalCount;
+		}
+
+		/**
+		 * Returns a new snapshot combining the counts of this snapshot and
+		 * another.
+		 * 
+		 * @param other The snapshot to merge with.
+		 * @return The merged snapshot.
+		 * @throws IllegalArgumentException Thrown when the snapshots have
+		 *                                  different precision.
+		 * @since 0.0.1
+		 */
+		public Snapshot merge(Snapshot other) {
+			if(other.precisionBits != precisionBits)
+				throw new IllegalArgumentException(
+						"Cannot merge histograms of different precision.");
+			long[] merged = counts.clone();
+			for(int i = 0; i < merged.length; i++)merged[i] += other.counts[i];
+			return new Snapshot(precisionBits, merged);
+		}
+	}
+}
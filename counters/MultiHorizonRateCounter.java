@@ -0,0 +1,236 @@
+/*  Original Licensing Copyright
+ * 
+ *  Thread-safe exponential average rate counter over several horizons.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Thread-safe Rate Counter which keeps an Exponential Moving Average for
+ * several periods, in the style of Unix load averages, from a single stream
+ * of ticks. Ticks are accumulated into one set of striped cells and folded
+ * into every horizon at once when polled, or by the first tick after the
+ * shortest pending decay period elapses.
+ * <p>
+ * Each horizon uses the same formula as the single period counters, so a
+ * horizon of P {@link TimeUnit#SECONDS} reports the same rate as a
+ * {@link PerSecondExponentialRateCounter} with a period of P, and a horizon
+ * of P {@link TimeUnit#MINUTES} matches a
+ * {@link PerMinuteExponentialRateCounter}.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class MultiHorizonRateCounter {
+	private final int[] emaPeriods;
+	private final double[] emaRate2, periodMillis;
+	private final double unitMillis;
+	private final TickClock clock;
+	private final DoubleAdder pending = new DoubleAdder();
+	private final double[] ts;
+	private final double[] count;
+
+	/**
+	 * The time in milliseconds after which the next tick must fold pending
+	 * ticks and decay the horizons.
+	 */
+	private volatile double foldAfter;
+
+	/**
+	 * Constructs the Rate Counter with an Exponential Moving Average for
+	 * each specified period using the monotonic clock.
+	 * 
+	 * @param unit       The unit of both the periods and the polled rates.
+	 * @param emaPeriods The exponential moving average periods in the
+	 *                   specified unit.
+	 * @throws IllegalArgumentException Thrown when no period is given, any
+	 *                                  period is less than 2, or unit is
+	 *                                  finer than milliseconds.
+	 * @since 0.0.1
+	 */
+	public MultiHorizonRateCounter(TimeUnit unit, int... emaPeriods) {
+		this(TickClock.MONOTONIC, unit, emaPeriods);
+	}
+
+	/**
+	 * Constructs the Rate Counter with an Exponential Moving Average for
+	 * each specified period reading time from a specified clock.
+	 * 
+	 * @param clock      The clock used to measure elapsed time.
+	 * @param unit       The unit of both the periods and the polled rates.
+	 * @param emaPeriods The exponential moving average periods in the
+	 *                   specified unit.
+	 * @throws IllegalArgumentException Thrown when no period is given, any
+	 *                                  period is less than 2, or unit is
+	 *                                  finer than milliseconds.
+	 * @since 0.0.1
+	 */
+	public MultiHorizonRateCounter(TickClock clock, TimeUnit unit,
+			int... emaPeriods) {
+		if(emaPeriods.length == 0)throw new IllegalArgumentException(
+				"At least one emaPeriod is required.");
+		if(unit.toMillis(1) < 1)throw new IllegalArgumentException(
+				"unit cannot be finer than milliseconds.");
+		this.emaPeriods = emaPeriods.clone();
+		this.emaRate2 = new double[emaPeriods.length];
+		this.periodMillis = new double[emaPeriods.length];
+		this.unitMillis = unit.toMillis(1);
+		for(int i = 0; i < emaPeriods.length; i++) {
+			if(emaPeriods[i] < 2)throw new IllegalArgumentException(
+					"emaPeriod cannot be less than 2.");
+			this.emaRate2[i] = 1.0 - 2.0 / (emaPeriods[i] + 1.0);
+			this.periodMillis[i] = emaPeriods[i] * unitMillis;
+		}
+		this.clock = clock;
+		this.ts = new double[emaPeriods.length];
+		this.count = new double[emaPeriods.length];
+		Arrays.fill(ts, clock.millis());
+		this.foldAfter = nextFold();
+	}
+
+	/**
+	 * Constructs a per second Rate Counter with 1, 5 and 15 minute horizons,
+	 * similar to Unix load averages.
+	 * 
+	 * @return The new Rate Counter.
+	 * @since 0.0.1
+	 */
+	public static MultiHorizonRateCounter loadAverage() {
+		return new MultiHorizonRateCounter(TimeUnit.SECONDS, 60, 300, 900);
+	}
+
+	/**
+	 * Increments the counter by 1; thread-safe.
+	 * 
+	 * @since 0.0.1
+	 */
+	public void tick() {
+		tick(1);
+	}
+
+	/**
+	 * Increments the counter by a custom amount passed as a parameter;
+	 * thread-safe.
+	 * 
+	 * @param amount The amount to be incremented in the counter. Supports
+	 *               decimals and negative numbers.
+	 * @since 0.0.1
+	 */
+	public void tick(double amount) {
+		pending.add(amount);
+		if(clock.millis() > foldAfter)fold(clock.millis());
+	}
+
+	/**
+	 * Private helper method which folds pending ticks into every horizon
+	 * before decaying them.
+	 * 
+	 * @param now The current time in milliseconds.
+	 * @since 0.0.1
+	 */
+	private synchronized void fold(double now) {
+		double amount = pending.sumThenReset();
+		for(int i = 0; i < count.length; i++) {
+			count[i] += amount;
+			double elapsed = now - ts[i];
+			double decay = ExponentialDecay.factor(
+					elapsed, periodMillis[i], emaRate2[i]);
+			if(decay < 1.0) {
+				ts[i] = now - decay*elapsed;
+				count[i] = decay*count[i];
+			}
+		}
+		foldAfter = nextFold();
+	}
+
+	/**
+	 * Private helper method returning the earliest time at which any horizon
+	 * must decay.
+	 * 
+	 * @return The earliest decay time in milliseconds.
+	 * @since 0.0.1
+	 */
+	private double nextFold() {
+		double next = Double.POSITIVE_INFINITY;
+		for(int i = 0; i < ts.length; i++) {
+			next = Math.min(next, ts[i] + periodMillis[i]);
+		}
+		return next;
+	}
+
+	/**
+	 * Polls the exponential moving average rates of every horizon.
+	 * Thread-safe.
+	 * 
+	 * @return The exponential moving average rates per unit, in the order
+	 *         the periods were given on construction.
+	 * @since 0.0.1
+	 */
+	public double[] poll() {
+		return poll(new double[count.length]);
+	}
+
+	/**
+	 * Polls the exponential moving average rates of every horizon into a
+	 * reusable array. Thread-safe.
+	 * 
+	 * @param dest The array to write the rates into, in the order the
+	 *             periods were given on construction.
+	 * @return The array passed as dest.
+	 * @throws IllegalArgumentException Thrown when dest is shorter than the
+	 *                                  number of horizons.
+	 * @since 0.0.1
+	 */
+	public synchronized double[] poll(double[] dest) {
+		if(dest.length < count.length)throw new IllegalArgumentException(
+				"dest cannot be shorter than the number of horizons.");
+		double now = clock.millis();
+		fold(now);
+		for(int i = 0; i < count.length; i++) {
+			dest[i] = count[i] * unitMillis / (now - ts[i]);
+		}
+		return dest;
+	}
+
+	/**
+	 * Polls the exponential moving average rate of a single horizon.
+	 * Thread-safe.
+	 * 
+	 * @param horizon The index of the period given on construction.
+	 * @return The exponential moving average rate per unit.
+	 * @since 0.0.1
+	 */
+	public synchronized double poll(int horizon) {
+		double now = clock.millis();
+		fold(now);
+		return count[horizon] * unitMillis / (now - ts[horizon]);
+	}
+
+	/**
+	 * Returns the exponential moving average periods of every horizon.
+	 * 
+	 * @return The periods in the order given on construction.
+	 * @since 0.0.1
+	 */
+	public int[] getEmaPeriods() {
+		return emaPeriods.clone();
+	}
+}
@@ -1,22 +1,41 @@
 package com.dz_fs_dev.common.counters;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
 /**
  * Thread-safe Per Second Rate Counter which employs an Exponential Moving Average with a period defined on construction.
  * Exponential moving averages weigh recent data over past data reacting to current event counts over time by decaying past events over time.
+ * <p>
+ * When constructed in striped mode, ticks are accumulated into contention-free striped cells instead of taking the counter's monitor.
+ * Pending ticks are folded into the average when polled, or by the first tick after a decay period elapses, so polled rates match the synchronized mode.
+ * <p>
+ * Time is read from a {@link TickClock}, by default the monotonic {@link TickClock#MONOTONIC}, so wall-clock adjustments do not distort rates.
  * 
  * @author DZ-FSDev
  * @since 16.0.1
- * @version 0.0.2
+ * @version 0.0.5
  */
 public class PerSecondExponentialRateCounter {
-	private static int idGen = 0;
+	private static final AtomicInteger idGen = new AtomicInteger();
 	
 	private final int ID;
 	private final int emaPeriod;
 	private final double emaRate, emaRate2;
+	private final TickClock clock;
 	private double ts;
 	private double count = 0;
 
+	/**
+	 * Striped cells holding ticks not yet folded into count; null unless striped.
+	 */
+	private final DoubleAdder pending;
+
+	/**
+	 * The time in milliseconds after which the next tick must fold pending ticks and decay.
+	 */
+	private volatile double foldAfter;
+
 	/**
 	 * Constructs the Per Second Rate Counter with an Exponential Moving Average.
 	 * 
@@ -25,12 +44,40 @@ public class PerSecondExponentialRateCounter {
 	 * @since 0.0.1
 	 */
 	public PerSecondExponentialRateCounter(int emaPeriod){
+		this(emaPeriod, false);
+	}
+
+	/**
+	 * Constructs the Per Second Rate Counter with an Exponential Moving Average, optionally in striped mode.
+	 * 
+	 * @param emaPeriod The exponential moving average period in seconds that will be used to calculate the exponential moving average rates.
+	 * @param striped True to accumulate ticks in striped cells without locking; false to synchronize every tick.
+	 * @throws IllegalArgumentException Thrown when emaPeriod is less than 2.
+	 * @since 0.0.3
+	 */
+	public PerSecondExponentialRateCounter(int emaPeriod, boolean striped){
+		this(emaPeriod, striped, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs the Per Second Rate Counter with an Exponential Moving Average reading time from a specified clock.
+	 * 
+	 * @param emaPeriod The exponential moving average period in seconds that will be used to calculate the exponential moving average rates.
+	 * @param striped True to accumulate ticks in striped cells without locking; false to synchronize every tick.
+	 * @param clock The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when emaPeriod is less than 2.
+	 * @since 0.0.4
+	 */
+	public PerSecondExponentialRateCounter(int emaPeriod, boolean striped, TickClock clock){
 		if(emaPeriod < 2)throw new IllegalArgumentException("emaPeriod cannot be less than 2 seconds.");
 		this.emaPeriod = emaPeriod;
 		this.emaRate = 2.0 / (emaPeriod + 1.0);
 		this.emaRate2 = 1.0 - this.emaRate;
-		this.ts = System.currentTimeMillis();
-		this.ID = idGen++;
+		this.clock = clock;
+		this.ts = clock.millis();
+		this.ID = idGen.getAndIncrement();
+		this.pending = striped ? new DoubleAdder() : null;
+		this.foldAfter = ts + emaPeriod * 1000.0;
 	}
 
 	/**
@@ -38,9 +85,8 @@ public class PerSecondExponentialRateCounter {
 	 * 
 	 * @since 0.0.1
 	 */
-	public synchronized void tick(){
-		count ++;
-		tock();
+	public void tick(){
+		tick(1);
 	}
 	
 	/**
@@ -49,22 +95,52 @@ public class PerSecondExponentialRateCounter {
 	 * @param amount The amount to be incremented in the counter. Supports decimals and negative numbers.
 	 * @since 0.0.1
 	 */
-	public synchronized void tick(double amount){
-		count += amount;
+	public void tick(double amount){
+		if(pending != null) {
+			pending.add(amount);
+			if(clock.millis() > foldAfter)fold();
+		}else {
+			synchronized(this) {
+				count += amount;
+				tock();
+			}
+		}
+	}
+
+	/**
+	 * Returns whether this counter accumulates ticks in striped cells.
+	 * 
+	 * @return True if this counter is in striped mode.
+	 * @since 0.0.3
+	 */
+	public boolean isStriped() {
+		return pending != null;
+	}
+
+	/**
+	 * Private helper method which folds pending striped ticks into the count before decaying it.
+	 * 
+	 * @since 0.0.3
+	 */
+	private synchronized void fold() {
+		if(pending != null)count += pending.sumThenReset();
 		tock();
+		foldAfter = ts + emaPeriod * 1000.0;
 	}
 	
 	/**
-	 * Private helper method to calculate the Exponential Moving Average
+	 * Private helper method to calculate the Exponential Moving Average. All elapsed decay periods are applied at once in constant time.
 	 * 
 	 * @since 0.0.1
 	 * @see <a href=https://www.investopedia.com/ask/answers/122314/what-exponential-moving-average-ema-formula-and-how-ema-calculated.asp>
 	 * 		Investopedia - Exponential Moving Average</a>
 	 */
 	private void tock() {
-		while(System.currentTimeMillis() - ts > emaPeriod * 1000) {
-			ts = emaRate2*ts + emaRate*System.currentTimeMillis();
-			count = emaRate2*count;
+		double now = clock.millis();
+		double decay = ExponentialDecay.factor(now - ts, emaPeriod * 1000.0, emaRate2);
+		if(decay < 1.0) {
+			ts = now - decay*(now - ts);
+			count = decay*count;
 		}
 	}
 
@@ -75,8 +151,43 @@ public class PerSecondExponentialRateCounter {
 	 * @since 0.0.1
 	 */
 	public synchronized double pollPS(){
-		tock();
-		return count * 1000 / (System.currentTimeMillis()-ts);
+		fold();
+		return count * 1000 / (clock.millis()-ts);
+	}
+
+	/**
+	 * Returns the exponential moving average period in seconds.
+	 * 
+	 * @return The exponential moving average period in seconds.
+	 * @since 0.0.5
+	 */
+	public int getEmaPeriod() {
+		return emaPeriod;
+	}
+
+	/**
+	 * Exports the decayed count and the milliseconds elapsed since the timestamp for snapshotting.
+	 * 
+	 * @return The count and the age of the timestamp in milliseconds.
+	 * @since 0.0.5
+	 */
+	synchronized double[] exportState() {
+		fold();
+		return new double[] {count, clock.millis() - ts};
+	}
+
+	/**
+	 * Replaces the state of this counter with a snapshotted count and timestamp age, decaying it up to now.
+	 * Intended to be called before the counter is ticked.
+	 * 
+	 * @param count The snapshotted count.
+	 * @param ageMillis The milliseconds elapsed since the snapshotted timestamp, including any downtime.
+	 * @since 0.0.5
+	 */
+	synchronized void restoreState(double count, double ageMillis) {
+		this.count = count;
+		this.ts = clock.millis() - ageMillis;
+		fold();
 	}
 
 	/**
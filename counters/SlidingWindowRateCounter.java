@@ -0,0 +1,217 @@
+/*  Original Licensing Copyright
+ * 
+ *  Thread-safe sliding window rate counter.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Thread-safe Rate Counter which counts the events of a sliding window
+ * exactly, up to the granularity of its buckets. Ticks are added to a fixed
+ * ring of time buckets with a CAS and to a running total, so ticking
+ * allocates nothing and the window sum is read in constant time. Buckets are
+ * rotated lazily by the first tick or poll which observes a new bucket.
+ * <p>
+ * The window covers the current, partially elapsed bucket and the buckets
+ * before it, so it spans between one bucket less than the window and the
+ * full window.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class SlidingWindowRateCounter {
+	private static final VarHandle BUCKETS =
+			MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final long windowMillis, bucketMillis;
+	private final TickClock clock;
+	/** Raw bits of the double amount in each bucket; CAS updated. */
+	private final long[] buckets;
+	private final DoubleAdder total = new DoubleAdder();
+
+	/**
+	 * The index, in bucket lengths since the clock's origin, of the newest
+	 * bucket.
+	 */
+	private volatile long head;
+
+	/**
+	 * Constructs a Rate Counter over a window of whole seconds with one
+	 * bucket per second.
+	 * 
+	 * @param windowSeconds The length of the window in seconds.
+	 * @throws IllegalArgumentException Thrown when windowSeconds is less
+	 *                                  than 1.
+	 * @since 0.0.1
+	 */
+	public SlidingWindowRateCounter(int windowSeconds) {
+		this(windowSeconds, TimeUnit.SECONDS, windowSeconds);
+	}
+
+	/**
+	 * Constructs a Rate Counter over a window split into a specified number
+	 * of buckets using the monotonic clock.
+	 * 
+	 * @param window  The length of the window.
+	 * @param unit    The unit of the window.
+	 * @param buckets The number of buckets the window is split into.
+	 * @throws IllegalArgumentException Thrown when buckets is less than 1 or
+	 *                                  the window is not a positive multiple
+	 *                                  of buckets milliseconds.
+	 * @since 0.0.1
+	 */
+	public SlidingWindowRateCounter(long window, TimeUnit unit, int buckets) {
+		this(window, unit, buckets, TickClock.MONOTONIC);
+	}
+
+	/**
+	 * Constructs a Rate Counter over a window split into a specified number
+	 * of buckets reading time from a specified clock.
+	 * 
+	 * @param window  The length of the window.
+	 * @param unit    The unit of the window.
+	 * @param buckets The number of buckets the window is split into.
+	 * @param clock   The clock used to measure elapsed time.
+	 * @throws IllegalArgumentException Thrown when buckets is less than 1 or
+	 *                                  the window is not a positive multiple
+	 *                                  of buckets milliseconds.
+	 * @since 0.0.1
+	 */
+	public SlidingWindowRateCounter(long window, TimeUnit unit, int buckets,
+			TickClock clock) {
+		if(buckets < 1)throw new IllegalArgumentException(
+				"buckets cannot be less than 1.");
+		long windowMillis = unit.toMillis(window);
+		if(windowMillis < buckets || windowMillis % buckets != 0)
+			throw new IllegalArgumentException(
+					"window must be a positive multiple of buckets milliseconds.");
+		this.windowMillis = windowMillis;
+		this.bucketMillis = windowMillis / buckets;
+		this.clock = clock;
+		this.buckets = new long[buckets];
+		this.head = Math.floorDiv(clock.millis(), bucketMillis);
+	}
+
+	/**
+	 * Increments the counter by 1; thread-safe.
+	 * 
+	 * @since 0.0.1
+	 */
+	public void tick() {
+		tick(1);
+	}
+
+	/**
+	 * Increments the counter by a custom amount passed as a parameter;
+	 * thread-safe.
+	 * 
+	 * @param amount The amount to be incremented in the counter. Supports
+	 *               decimals and negative numbers.
+	 * @since 0.0.1
+	 */
+	public void tick(double amount) {
+		int slot = slot(advance());
+		long prev;
+		do {
+			prev = (long)BUCKETS.getVolatile(buckets, slot);
+		}while(!BUCKETS.weakCompareAndSet(buckets, slot, prev,
+				Double.doubleToRawLongBits(
+						Double.longBitsToDouble(prev) + amount)));
+		total.add(amount);
+	}
+
+	/**
+	 * Private helper method returning the newest bucket index, rotating
+	 * buckets out of the window first when the clock has moved past it.
+	 * 
+	 * @return The index of the newest bucket.
+	 * @since 0.0.1
+	 */
+	private long advance() {
+		long idx = Math.floorDiv(clock.millis(), bucketMillis);
+		long h = head;
+		if(idx <= h)return h;
+		synchronized(this) {
+			h = head;
+			if(idx > h) {
+				for(long i = Math.max(h + 1, idx - buckets.length + 1); i <= idx; i++) {
+					total.add(-Double.longBitsToDouble(
+							(long)BUCKETS.getAndSet(buckets, slot(i), 0L)));
+				}
+				head = h = idx;
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Private helper method mapping a bucket index onto the ring.
+	 * 
+	 * @param idx The bucket index.
+	 * @return The position in the ring.
+	 * @since 0.0.1
+	 */
+	private int slot(long idx) {
+		return (int)Math.floorMod(idx, (long)buckets.length);
+	}
+
+	/**
+	 * Returns the sum of the ticks within the window. Thread-safe.
+	 * 
+	 * @return The sum of the ticks within the window.
+	 * @since 0.0.1
+	 */
+	public double sum() {
+		advance();
+		return total.sum();
+	}
+
+	/**
+	 * Polls the per second rate averaged over the window. Thread-safe.
+	 * 
+	 * @return The per second rate over the window.
+	 * @since 0.0.1
+	 */
+	public double pollPS() {
+		return sum() * 1000 / windowMillis;
+	}
+
+	/**
+	 * Polls the per minute rate averaged over the window. Thread-safe.
+	 * 
+	 * @return The per minute rate over the window.
+	 * @since 0.0.1
+	 */
+	public double poll() {
+		return sum() * 60000 / windowMillis;
+	}
+
+	/**
+	 * Returns the length of the window in milliseconds.
+	 * 
+	 * @return The length of the window in milliseconds.
+	 * @since 0.0.1
+	 */
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+}
@@ -0,0 +1,61 @@
+/*  Original Licensing Copyright
+ * 
+ *  Pluggable time source for the rate counters.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.counters;
+
+/**
+ * Pluggable time source for the rate counters. Only differences between
+ * readings of the same clock are meaningful; the origin is arbitrary unless
+ * stated otherwise.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+@FunctionalInterface
+public interface TickClock {
+	/**
+	 * A monotonic clock backed by {@link System#nanoTime()}. Unaffected by
+	 * wall-clock adjustments.
+	 */
+	TickClock MONOTONIC = System::nanoTime;
+
+	/**
+	 * A wall clock backed by {@link System#currentTimeMillis()}; nanoseconds
+	 * since the epoch with millisecond resolution.
+	 */
+	TickClock WALL = () -> System.currentTimeMillis() * 1_000_000L;
+
+	/**
+	 * Returns the current reading of this clock.
+	 * 
+	 * @return The current reading in nanoseconds.
+	 * @since 0.0.1
+	 */
+	long nanoTime();
+
+	/**
+	 * Returns the current reading of this clock in milliseconds.
+	 * 
+	 * @return The current reading in milliseconds.
+	 * @since 0.0.1
+	 */
+	default long millis() {
+		return nanoTime() / 1_000_000L;
+	}
+}
@@ -0,0 +1,412 @@
+/*  Licensing Copyright
+ * 
+ *  Bounded cache of file contents invalidated on modification.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache of file contents as read by
+ * {@link FileTools#tryReadFile(File)}, bounded by the approximate number of
+ * bytes held. Concurrent misses on the same file share a single load.
+ * <p>
+ * Hits are lock-free: they look the file up in a concurrent map and flag it
+ * as recently used. Loads evict with a clock hand which gives flagged files
+ * a second chance, approximating least recently used eviction without
+ * reordering anything on a hit.
+ * <p>
+ * By default every hit checks the last modified time and size of the file
+ * and reloads it when either changed. A cache created with
+ * {@link #watching(long)} registers the directories of cached files with a
+ * {@link WatchService} instead, and hits are served without touching the
+ * file system until a change is reported. A change reported while the file
+ * is being loaded keeps the load from being cached.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public class FileContentCache implements AutoCloseable {
+	/** Approximate bytes of bookkeeping per cached file. */
+	private static final long ENTRY_OVERHEAD = 128;
+
+	private final long maxBytes;
+	private final Function<File, String> loader;
+	private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<Path, Load> loading = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	/** Guarded by this, like every change to the entries. */
+	private long weight = 0;
+	/** The clock hand; guarded by this. */
+	private Iterator<Map.Entry<Path, Entry>> hand;
+
+	private final WatchService watcher;
+	private final Set<Path> watched;
+
+	/**
+	 * A cached file and the attributes it was loaded with.
+	 */
+	private static final class Entry {
+		final String content;
+		final long lastModified, size, weight;
+		volatile boolean referenced;
+
+		Entry(String content, long lastModified, long size) {
+			this.content = content;
+			this.lastModified = lastModified;
+			this.size = size;
+			this.weight = ENTRY_OVERHEAD + 2L * content.length();
+		}
+
+		boolean matches(BasicFileAttributes attributes) {
+			return attributes.lastModifiedTime().toMillis() == lastModified
+					&& attributes.size() == size;
+		}
+	}
+
+	/**
+	 * A load in progress, which a change reported meanwhile marks stale.
+	 */
+	private static final class Load {
+		final CompletableFuture<Entry> result = new CompletableFuture<>();
+		/** Guarded by the cache. */
+		boolean stale;
+	}
+
+	/**
+	 * Constructs a cache validating hits against the last modified time and
+	 * size of each file.
+	 * 
+	 * @param maxBytes The approximate maximum number of bytes held.
+	 * @since 0.0.1
+	 */
+	public FileContentCache(long maxBytes) {
+		this(maxBytes, null);
+	}
+
+	/**
+	 * Private constructor of a cache, invalidated by a watch service if one
+	 * is given.
+	 * 
+	 * @param maxBytes The approximate maximum number of bytes held.
+	 * @param watcher  The watch service; null to validate hits instead.
+	 * @since 0.0.2
+	 */
+	private FileContentCache(long maxBytes, WatchService watcher) {
+		this.maxBytes = maxBytes;
+		this.loader = FileTools::tryReadFile;
+		this.watcher = watcher;
+		if(watcher != null) {
+			this.watched = ConcurrentHashMap.newKeySet();
+			Thread t = new Thread(this::watch, "FileContentCache-watcher");
+			t.setDaemon(true);
+			t.start();
+		}else {
+			this.watched = null;
+		}
+	}
+
+	/**
+	 * Returns a cache invalidated by a {@link WatchService} on a background
+	 * daemon thread; hits do not touch the file system. The cache should be
+	 * closed to stop watching.
+	 * 
+	 * @param maxBytes The approximate maximum number of bytes held.
+	 * @return The new cache.
+	 * @throws IOException Thrown if the watch service could not be created.
+	 * @since 0.0.2
+	 */
+	public static FileContentCache watching(long maxBytes) throws IOException {
+		return new FileContentCache(maxBytes,
+				FileSystems.getDefault().newWatchService());
+	}
+
+	/**
+	 * Attempts to read a specified file through the cache, returning the
+	 * same contents as {@link FileTools#tryReadFile(String)}.
+	 * 
+	 * @param path The specified path to read the file from.
+	 * @return A String containing the read lines from the file.
+	 * @since 0.0.1
+	 */
+	public String tryReadFile(String path) {
+		return tryReadFile(new File(path));
+	}
+
+	/**
+	 * Attempts to read a specified file through the cache, returning the
+	 * same contents as {@link FileTools#tryReadFile(File)}.
+	 * 
+	 * @param file The specified file to read.
+	 * @return A String containing the read lines from the file.
+	 * @since 0.0.1
+	 */
+	public String tryReadFile(File file) {
+		Path path = file.toPath().toAbsolutePath().normalize();
+		BasicFileAttributes attributes = null;
+		if(watcher == null) {
+			try {
+				attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			}catch(IOException e) {
+				invalidate(path);
+				misses.increment();
+				return loader.apply(file);
+			}
+		}
+
+		Entry entry = entries.get(path);
+		if(entry != null && (attributes == null || entry.matches(attributes))) {
+			if(!entry.referenced)entry.referenced = true;
+			hits.increment();
+			return entry.content;
+		}
+		misses.increment();
+
+		Load load = new Load();
+		Load shared = loading.putIfAbsent(path, load);
+		if(shared != null)return shared.result.join().content;
+		try {
+			entry = load(file, path, attributes, load);
+			load.result.complete(entry);
+			return entry.content;
+		}catch(RuntimeException | Error e) {
+			load.result.completeExceptionally(e);
+			throw e;
+		}finally {
+			loading.remove(path, load);
+		}
+	}
+
+	/**
+	 * Private helper method loading a file and caching it unless a change
+	 * was reported while loading.
+	 * 
+	 * @param file       The specified file to read.
+	 * @param path       The normalized absolute path of the file.
+	 * @param attributes The attributes read before loading; null in watch
+	 *                   mode.
+	 * @param load       The load, registered before the file is read.
+	 * @return The loaded entry.
+	 * @since 0.0.1
+	 */
+	private Entry load(File file, Path path, BasicFileAttributes attributes,
+			Load load) {
+		long lastModified = -1, size = -1;
+		if(watcher != null) {
+			watch(path.getParent());
+		}else {
+			lastModified = attributes.lastModifiedTime().toMillis();
+			size = attributes.size();
+		}
+		Entry entry = new Entry(loader.apply(file), lastModified, size);
+
+		synchronized(this) {
+			Entry previous = entries.remove(path);
+			if(previous != null)weight -= previous.weight;
+			if(!load.stale && entry.weight <= maxBytes) {
+				entries.put(path, entry);
+				weight += entry.weight;
+				evict();
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Private helper method advancing the clock hand until the byte bound is
+	 * respected, clearing the flag of recently used files and evicting the
+	 * others. Called holding the lock of the cache.
+	 * 
+	 * @since 0.0.2
+	 */
+	private void evict() {
+		while(weight > maxBytes && !entries.isEmpty()) {
+			if(hand == null || !hand.hasNext())
+				hand = entries.entrySet().iterator();
+			if(!hand.hasNext())break;
+			Map.Entry<Path, Entry> next = hand.next();
+			Entry entry = next.getValue();
+			if(entry.referenced) {
+				entry.referenced = false;
+			}else if(entries.remove(next.getKey(), entry)) {
+				weight -= entry.weight;
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Private helper method registering a directory with the watch service
+	 * once.
+	 * 
+	 * @param dir The directory to watch.
+	 * @since 0.0.1
+	 */
+	private void watch(Path dir) {
+		if(dir == null || !watched.add(dir))return;
+		try {
+			dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY,
+					StandardWatchEventKinds.ENTRY_DELETE);
+		}catch(IOException | ClosedWatchServiceException e) {
+			watched.remove(dir);
+		}
+	}
+
+	/**
+	 * Private helper method run by the watcher thread, invalidating files as
+	 * changes are reported.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void watch() {
+		try {
+			for(;;) {
+				WatchKey key = watcher.take();
+				Path dir = (Path)key.watchable();
+				for(WatchEvent<?> event : key.pollEvents()) {
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						invalidateAll();
+					}else {
+						invalidate(dir.resolve((Path)event.context()));
+					}
+				}
+				if(!key.reset())watched.remove(dir);
+			}
+		}catch(InterruptedException | ClosedWatchServiceException e) {
+			// Closed.
+		}
+	}
+
+	/**
+	 * Removes a specified file from the cache.
+	 * 
+	 * @param file The specified file.
+	 * @since 0.0.1
+	 */
+	public void invalidate(File file) {
+		invalidate(file.toPath().toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Private helper method removing a normalized path from the cache and
+	 * keeping a load of it in progress from being cached.
+	 * 
+	 * @param path The normalized absolute path.
+	 * @since 0.0.1
+	 */
+	private synchronized void invalidate(Path path) {
+		Entry previous = entries.remove(path);
+		if(previous != null)weight -= previous.weight;
+		Load load = loading.get(path);
+		if(load != null)load.stale = true;
+	}
+
+	/**
+	 * Removes every file from the cache and keeps the loads in progress
+	 * from being cached.
+	 * 
+	 * @since 0.0.1
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+		weight = 0;
+		for(Load load : loading.values())load.stale = true;
+	}
+
+	/**
+	 * Returns the number of reads served from the cache.
+	 * 
+	 * @return The number of hits.
+	 * @since 0.0.1
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of reads which had to load the file or wait for a
+	 * concurrent load.
+	 * 
+	 * @return The number of misses.
+	 * @since 0.0.1
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of files evicted to respect the byte bound.
+	 * 
+	 * @return The number of evictions.
+	 * @since 0.0.1
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the approximate number of bytes currently held.
+	 * 
+	 * @return The approximate number of bytes held.
+	 * @since 0.0.1
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Returns the number of files currently cached.
+	 * 
+	 * @return The number of files cached.
+	 * @since 0.0.1
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Stops watching for changes in watch mode.
+	 * 
+	 * @throws IOException Thrown if the watch service could not be closed.
+	 * @since 0.0.1
+	 */
+	@Override
+	public void close() throws IOException {
+		if(watcher != null)watcher.close();
+	}
+}
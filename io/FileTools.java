@@ -18,21 +18,56 @@
  */
 package com.dz_fs_dev.common.io;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Utility class containing common file IO and manipulation tools.
  * 
  * @author DZ-FSDev
  * @since 17.0.1
- * @version 0.0.3
+ * @version 0.0.9
  */
 public final class FileTools {
 	private FileTools() {}
 
+	/**
+	 * The default size in chars of the buffer used when streaming lines:
+	 * {@value FileTools#DEFAULT_BUFFER_SIZE}.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Per thread direct buffers through which writes are encoded, avoiding
+	 * the temporary direct buffer the channel would otherwise copy heap
+	 * buffers into.
+	 */
+	private static final ThreadLocal<ByteBuffer> DIRECT_BUFFERS =
+			ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(64 * 1024));
+
 	/**
 	 * Attempts to read a specified file and returns a list containing what was
 	 * read.
@@ -111,55 +146,79 @@ public final class FileTools {
 	/**
 	 * Attempts to write contents to a specified file replacing existing
 	 * contents; returning true on success. Missing directories will also be
-	 * created. If the file exists, it will be overwritten.
+	 * created. If the file exists, it will be overwritten. The contents are
+	 * encoded as UTF-8.
 	 * 
 	 * @param file The specified file to write to.
 	 * @param data The specified data to write to the file.
-	 * @return True if file write was successful.
+	 * @return True if file write was successful; false otherwise.
 	 * @since 0.0.3
 	 */
 	public static boolean tryWriteFile(File file, String data) {
-		//TODO
-		file.mkdirs();
-		return true;
+		try {
+			writeString(file, data);
+			return true;
+		}catch(IOException e) {
+			return false;
+		}
 	}
 	
 	/**
-	 * Attempts to write contents to a specified file appending to existing
-	 * contents; returning true on success. Missing directories will also be
-	 * created. If the file exists, it will be overwritten.
+	 * Writes contents to a specified file replacing existing contents;
+	 * returning true on success. Missing directories will also be created.
+	 * If the file exists, it will be overwritten. The contents are encoded as
+	 * UTF-8.
 	 * 
-	 * @param file The specified file to append to.
-	 * @param data The specified data to append to the file.
+	 * @param file The specified file to write to.
+	 * @param data The specified data to write to the file.
 	 * @return True if file write was successful; false otherwise.
 	 * @since 0.0.3
 	 */
 	public static boolean writeFile(File file, String data) {
-		//TODO
-		file.mkdirs();
-		return true;
+		return tryWriteFile(file, data);
 	}
 	
 	/**
-	 * Attempts to write contents to a specified file replacing existing
-	 * contents; returning true on success. Missing directories will also be
-	 * created. If the file exists, The data will be added to the end.
+	 * Writes contents to a specified file replacing existing contents,
+	 * reporting failures as exceptions. Missing directories will also be
+	 * created. If the file exists, it will be overwritten. The contents are
+	 * encoded as UTF-8.
 	 * 
 	 * @param file The specified file to write to.
 	 * @param data The specified data to write to the file.
-	 * @return True if file write was successful.
-	 * @since 0.0.3
+	 * @throws IOException Thrown if the file could not be written.
+	 * @since 0.0.8
 	 */
-	public static boolean tryAppendToFile(File file, String data) {
-		//TODO
-		file.mkdirs();
-		return true;
+	public static void writeString(File file, String data) throws IOException {
+		write(file, data, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
 	}
 	
 	/**
 	 * Attempts to write contents to a specified file appending to existing
 	 * contents; returning true on success. Missing directories will also be
-	 * created. If the file exists, The data will be added to the end.
+	 * created. If the file exists, The data will be added to the end. The
+	 * contents are encoded as UTF-8.
+	 * 
+	 * @param file The specified file to append to.
+	 * @param data The specified data to append to the file.
+	 * @return True if file write was successful; false otherwise.
+	 * @since 0.0.3
+	 */
+	public static boolean tryAppendToFile(File file, String data) {
+		try {
+			appendString(file, data);
+			return true;
+		}catch(IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Writes contents to a specified file appending to existing contents;
+	 * returning true on success. Missing directories will also be created.
+	 * If the file exists, The data will be added to the end. The contents
+	 * are encoded as UTF-8.
 	 * 
 	 * @param file The specified file to append to.
 	 * @param data The specified data to append to the file.
@@ -167,8 +226,287 @@ public final class FileTools {
 	 * @since 0.0.3
 	 */
 	public static boolean appendToFile(File file, String data) {
-		//TODO
-		file.mkdirs();
-		return true;
+		return tryAppendToFile(file, data);
+	}
+	
+	/**
+	 * Writes contents to a specified file appending to existing contents,
+	 * reporting failures as exceptions. Missing directories will also be
+	 * created. If the file exists, The data will be added to the end. The
+	 * contents are encoded as UTF-8.
+	 * 
+	 * @param file The specified file to append to.
+	 * @param data The specified data to append to the file.
+	 * @throws IOException Thrown if the file could not be written.
+	 * @since 0.0.8
+	 */
+	public static void appendString(File file, String data)
+			throws IOException {
+		write(file, data, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Private helper method encoding contents as UTF-8 through the calling
+	 * thread's direct buffer into a file channel opened with specified
+	 * options, creating missing directories first.
+	 * 
+	 * @param file    The specified file to write to.
+	 * @param data    The specified data to write to the file.
+	 * @param options The options to open the file with.
+	 * @throws IOException Thrown if the file could not be written.
+	 * @since 0.0.6
+	 */
+	private static void write(File file, String data, OpenOption... options)
+			throws IOException {
+		createParentDirectories(file);
+		try(FileChannel channel = FileChannel.open(file.toPath(), options)){
+			ByteBuffer buffer = DIRECT_BUFFERS.get();
+			buffer.clear();
+			encode(channel, data, newUtf8Encoder(), buffer);
+			drain(channel, buffer);
+		}
+	}
+
+	/**
+	 * Creates the missing parent directories of a specified file.
+	 * 
+	 * @param file The specified file.
+	 * @throws IOException Thrown if the directories could not be created.
+	 * @since 0.0.6
+	 */
+	static void createParentDirectories(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if(parent != null)Files.createDirectories(parent.toPath());
+	}
+
+	/**
+	 * Returns a new UTF-8 encoder replacing malformed input like
+	 * {@link String#getBytes(Charset)} does.
+	 * 
+	 * @return A new UTF-8 encoder.
+	 * @since 0.0.6
+	 */
+	static CharsetEncoder newUtf8Encoder() {
+		return StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Encodes contents into a buffer in write mode, draining it into a
+	 * channel whenever it fills up. Bytes which still fit are left in the
+	 * buffer so several contents can be batched into one write.
+	 * 
+	 * @param channel The channel to drain into.
+	 * @param data    The contents to encode.
+	 * @param encoder The encoder to use.
+	 * @param buffer  The buffer in write mode.
+	 * @throws IOException Thrown if the channel could not be written.
+	 * @since 0.0.6
+	 */
+	static void encode(WritableByteChannel channel, CharSequence data,
+			CharsetEncoder encoder, ByteBuffer buffer) throws IOException {
+		CharBuffer in = CharBuffer.wrap(data);
+		encoder.reset();
+		while(encoder.encode(in, buffer, true).isOverflow())drain(channel, buffer);
+		while(encoder.flush(buffer).isOverflow())drain(channel, buffer);
+	}
+
+	/**
+	 * Writes every byte of a buffer in write mode into a channel and clears
+	 * the buffer.
+	 * 
+	 * @param channel The channel to drain into.
+	 * @param buffer  The buffer in write mode.
+	 * @throws IOException Thrown if the channel could not be written.
+	 * @since 0.0.6
+	 */
+	static void drain(WritableByteChannel channel, ByteBuffer buffer)
+			throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Attempts to read the entire contents of a specified file as bytes.
+	 * 
+	 * @param file The specified file to read.
+	 * @return The contents of the file; null if it could not be read.
+	 * @since 0.0.4
+	 */
+	public static byte[] tryReadBytes(File file) {
+		try {
+			return Files.readAllBytes(file.toPath());
+		}catch(IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Attempts to atomically replace the contents of a specified file with
+	 * bytes; returning true on success. The bytes are written to a temporary
+	 * file in the same directory which is then moved over the file, so
+	 * readers never observe a partially written file. Missing directories
+	 * will also be created.
+	 * 
+	 * @param file The specified file to write to.
+	 * @param data The specified data to write to the file.
+	 * @return True if file write was successful; false otherwise.
+	 * @since 0.0.4
+	 */
+	public static boolean tryWriteBytes(File file, byte[] data) {
+		try {
+			writeAtomically(file, out -> out.write(data));
+			return true;
+		}catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Produces the contents of a file onto a stream.
+	 * 
+	 * @since 0.0.7
+	 */
+	@FunctionalInterface
+	public interface StreamWriter {
+		/**
+		 * Writes the contents onto a specified stream without closing it.
+		 * 
+		 * @param out The stream to write to.
+		 * @throws IOException Thrown if the contents could not be written.
+		 * @since 0.0.7
+		 */
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Atomically replaces the contents of a specified file with the output
+	 * of a writer, streamed through a buffered channel so the contents are
+	 * never held in memory whole. The output goes to a temporary file in the
+	 * same directory which is forced to disk and then moved over the file,
+	 * so readers never observe a partially written file and a power loss
+	 * leaves either the old or the new contents; on failure the file is left
+	 * untouched. The directory is forced after the move where the platform
+	 * allows it. Missing directories will also be created.
+	 * 
+	 * @param file   The specified file to write to.
+	 * @param writer Writes the new contents of the file.
+	 * @throws IOException Thrown if the file could not be written.
+	 * @since 0.0.7
+	 */
+	public static void writeAtomically(File file, StreamWriter writer)
+			throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(),
+				target.getFileName().toString(), ".tmp");
+		try {
+			try(FileChannel channel = FileChannel.open(temp,
+					StandardOpenOption.WRITE)){
+				OutputStream out = new BufferedOutputStream(
+						Channels.newOutputStream(channel), DEFAULT_BUFFER_SIZE);
+				writer.writeTo(out);
+				out.flush();
+				channel.force(true);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}catch(IOException | RuntimeException | Error e) {
+			try {
+				Files.deleteIfExists(temp);
+			}catch(IOException ignored) {}
+			throw e;
+		}
+		forceDirectory(target.getParent());
+	}
+
+	/**
+	 * Private helper method forcing a directory to disk, making a rename in
+	 * it durable. Platforms which cannot open directories, such as Windows,
+	 * are skipped.
+	 * 
+	 * @param dir The directory to force.
+	 * @since 0.0.9
+	 */
+	private static void forceDirectory(Path dir) {
+		try(FileChannel channel = FileChannel.open(dir,
+				StandardOpenOption.READ)){
+			channel.force(true);
+		}catch(IOException e) {
+			// Not supported on this platform.
+		}
+	}
+
+	/**
+	 * Opens a specified file as a lazily populated stream of UTF-8 lines.
+	 * Only the current line and the buffer are held in memory, so files much
+	 * larger than the heap can be processed. The stream must be closed to
+	 * release the file.
+	 * 
+	 * @param file The specified file to read.
+	 * @return A lazily populated stream of the lines of the file.
+	 * @throws IOException Thrown if the file could not be opened.
+	 * @since 0.0.5
+	 */
+	public static Stream<String> streamLines(File file) throws IOException {
+		return streamLines(file, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Opens a specified file as a lazily populated stream of lines decoded
+	 * with a specified charset. Only the current line and the buffer are
+	 * held in memory, so files much larger than the heap can be processed.
+	 * The stream must be closed to release the file. Malformed input is
+	 * reported as an {@link UncheckedIOException} while streaming.
+	 * 
+	 * @param file       The specified file to read.
+	 * @param charset    The charset the file is encoded with.
+	 * @param bufferSize The size of the read buffer in chars.
+	 * @return A lazily populated stream of the lines of the file.
+	 * @throws IOException Thrown if the file could not be opened.
+	 * @since 0.0.5
+	 */
+	public static Stream<String> streamLines(File file, Charset charset,
+			int bufferSize) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				Files.newInputStream(file.toPath()), charset.newDecoder()),
+				bufferSize);
+		try {
+			return reader.lines().onClose(() -> {
+				try {
+					reader.close();
+				}catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}catch(RuntimeException | Error e) {
+			reader.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Attempts to read a specified file line by line, passing each line to a
+	 * callback in order without retaining it; returning true if every line
+	 * was processed.
+	 * 
+	 * @param file       The specified file to read.
+	 * @param charset    The charset the file is encoded with.
+	 * @param bufferSize The size of the read buffer in chars.
+	 * @param action     The callback receiving each line.
+	 * @return True if the whole file was read; false otherwise.
+	 * @since 0.0.5
+	 */
+	public static boolean tryForEachLine(File file, Charset charset,
+			int bufferSize, Consumer<String> action) {
+		try(Stream<String> lines = streamLines(file, charset, bufferSize)){
+			lines.forEachOrdered(action);
+			return true;
+		}catch(IOException | UncheckedIOException e) {
+			return false;
+		}
 	}
 }
@@ -0,0 +1,367 @@
+/*  Licensing Copyright
+ * 
+ *  Asynchronous file appender batching writes and fsyncs.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.dz_fs_dev.common.io.FileTools.createParentDirectories;
+import static com.dz_fs_dev.common.io.FileTools.drain;
+import static com.dz_fs_dev.common.io.FileTools.encode;
+import static com.dz_fs_dev.common.io.FileTools.newUtf8Encoder;
+
+/**
+ * Thread-safe asynchronous appender to a single file. Any number of threads
+ * enqueue records, and one writer thread encodes them as UTF-8 into a large
+ * direct buffer, writing whole batches at once. The file is forced to disk
+ * as a group commit once a sync interval has passed or enough bytes are
+ * unsynced, so appending costs an enqueue rather than a system call.
+ * <p>
+ * Records are appended verbatim; callers add separators such as newlines.
+ * {@link #appendDurable(String)} returns a future completing once the
+ * record has been forced to disk. Every record enqueued before
+ * {@link #close()} is written; once the appender has failed to write,
+ * records still queued are discarded and their futures fail.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.3
+ */
+public class GroupCommitAppender implements AutoCloseable {
+	private static final int BATCH_BUFFER_SIZE = 1 << 20;
+
+	private final FileChannel channel;
+	private final BlockingQueue<Record> queue;
+	private final long syncIntervalNanos;
+	private final long syncBytes;
+	private final Thread writer;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_BUFFER_SIZE);
+	private final CharsetEncoder encoder = newUtf8Encoder();
+	private final List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+	/** Held shared while enqueueing and exclusively while closing. */
+	private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+	private long unsyncedBytes = 0;
+	private long lastSync = System.nanoTime();
+	private volatile boolean closed = false;
+	private volatile IOException failure;
+
+	/**
+	 * A queued record and the future to complete once it is on disk.
+	 */
+	private static final class Record {
+		final String data;
+		final CompletableFuture<Void> synced;
+
+		Record(String data, CompletableFuture<Void> synced) {
+			this.data = data;
+			this.synced = synced;
+		}
+	}
+
+	/**
+	 * Constructs an appender with a queue of 65536 records, syncing every
+	 * 10 milliseconds or 8 MB.
+	 * 
+	 * @param file The file to append to; created with its missing
+	 *             directories if needed.
+	 * @throws IOException Thrown if the file could not be opened.
+	 * @since 0.0.1
+	 */
+	public GroupCommitAppender(File file) throws IOException {
+		this(file, 1 << 16, 10, 8 << 20);
+	}
+
+	/**
+	 * Constructs an appender.
+	 * 
+	 * @param file               The file to append to; created with its
+	 *                           missing directories if needed.
+	 * @param queueCapacity      The maximum number of records waiting to be
+	 *                           written before appending blocks.
+	 * @param syncIntervalMillis The longest time written records stay
+	 *                           unsynced.
+	 * @param syncBytes          The number of unsynced bytes which triggers
+	 *                           a sync early.
+	 * @throws IllegalArgumentException Thrown when queueCapacity is less
+	 *                                  than 1, or syncIntervalMillis or
+	 *                                  syncBytes is negative.
+	 * @throws IOException              Thrown if the file could not be
+	 *                                  opened.
+	 * @since 0.0.1
+	 */
+	public GroupCommitAppender(File file, int queueCapacity,
+			long syncIntervalMillis, long syncBytes) throws IOException {
+		if(queueCapacity < 1)throw new IllegalArgumentException(
+				"queueCapacity cannot be less than 1.");
+		if(syncIntervalMillis < 0 || syncBytes < 0)
+			throw new IllegalArgumentException(
+					"syncIntervalMillis and syncBytes cannot be negative.");
+		createParentDirectories(file);
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+		this.syncBytes = syncBytes;
+		this.writer = new Thread(this::run, "GroupCommitAppender-" + file.getName());
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Enqueues a record, blocking while the queue is full.
+	 * 
+	 * @param record The record to append.
+	 * @throws InterruptedException  Thrown if interrupted while blocked.
+	 * @throws IllegalStateException Thrown if the appender is closed or
+	 *                               failed to write.
+	 * @since 0.0.1
+	 */
+	public void append(String record) throws InterruptedException {
+		enqueue(new Record(record, null));
+	}
+
+	/**
+	 * Attempts to enqueue a record without blocking.
+	 * 
+	 * @param record The record to append.
+	 * @return True if the record was enqueued; false if the queue is full.
+	 * @throws IllegalStateException Thrown if the appender is closed or
+	 *                               failed to write.
+	 * @since 0.0.1
+	 */
+	public boolean tryAppend(String record) {
+		closeLock.readLock().lock();
+		try {
+			checkOpen();
+			return queue.offer(new Record(record, null));
+		}finally {
+			closeLock.readLock().unlock();
+			failQueued();
+		}
+	}
+
+	/**
+	 * Enqueues a record, blocking while the queue is full, and returns a
+	 * future completing once the record has been forced to disk.
+	 * 
+	 * @param record The record to append.
+	 * @return A future completing once the record is durable, or completing
+	 *         exceptionally if it could not be written.
+	 * @throws InterruptedException  Thrown if interrupted while blocked.
+	 * @throws IllegalStateException Thrown if the appender is closed or
+	 *                               failed to write.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<Void> appendDurable(String record)
+			throws InterruptedException {
+		CompletableFuture<Void> synced = new CompletableFuture<>();
+		enqueue(new Record(record, synced));
+		return synced;
+	}
+
+	/**
+	 * Private helper method enqueueing a record, blocking while the queue is
+	 * full. The shared close lock keeps {@link #close()} from draining the
+	 * queue for the last time until the record is in it.
+	 * 
+	 * @param record The record to enqueue.
+	 * @throws InterruptedException  Thrown if interrupted while blocked.
+	 * @throws IllegalStateException Thrown if the appender is closed or
+	 *                               failed to write.
+	 * @since 0.0.2
+	 */
+	private void enqueue(Record record) throws InterruptedException {
+		closeLock.readLock().lock();
+		try {
+			checkOpen();
+			queue.put(record);
+		}finally {
+			closeLock.readLock().unlock();
+			failQueued();
+		}
+	}
+
+	/**
+	 * Private helper method rejecting appends once closed or failed.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void checkOpen() {
+		if(failure != null)throw new IllegalStateException(
+				"GroupCommitAppender failed to write.", failure);
+		if(closed)throw new IllegalStateException(
+				"GroupCommitAppender is closed.");
+	}
+
+	/**
+	 * Private helper method run by the writer thread, writing batches until
+	 * closed and the queue is empty.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void run() {
+		List<Record> batch = new ArrayList<>();
+		try {
+			while(!closed || !queue.isEmpty()) {
+				long wait = unsyncedBytes > 0
+						? lastSync + syncIntervalNanos - System.nanoTime()
+						: TimeUnit.MILLISECONDS.toNanos(100);
+				Record first = wait > 0
+						? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+				if(first != null) {
+					batch.add(first);
+					queue.drainTo(batch);
+					write(batch);
+					batch.clear();
+				}
+				syncIfDue(false);
+			}
+		}catch(InterruptedException e) {
+			fail(new InterruptedIOException(
+					"GroupCommitAppender writer interrupted."));
+			Thread.currentThread().interrupt();
+		}catch(IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Private helper method writing a batch of records in as few writes as
+	 * the buffer allows.
+	 * 
+	 * @param batch The records to write.
+	 * @throws IOException Thrown if the file could not be written.
+	 * @since 0.0.1
+	 */
+	private void write(List<Record> batch) throws IOException {
+		long before = channel.position();
+		for(Record record : batch) {
+			encode(channel, record.data, encoder, buffer);
+			if(record.synced != null)unsynced.add(record.synced);
+		}
+		drain(channel, buffer);
+		unsyncedBytes += channel.position() - before;
+	}
+
+	/**
+	 * Private helper method forcing written records to disk when the sync
+	 * interval has passed, enough bytes are unsynced, or when forced.
+	 * 
+	 * @param force True to sync whenever anything is unsynced.
+	 * @throws IOException Thrown if the file could not be forced.
+	 * @since 0.0.1
+	 */
+	private void syncIfDue(boolean force) throws IOException {
+		if(unsyncedBytes == 0 && unsynced.isEmpty())return;
+		long now = System.nanoTime();
+		if(force || unsyncedBytes >= syncBytes
+				|| now - lastSync >= syncIntervalNanos) {
+			channel.force(false);
+			lastSync = now;
+			unsyncedBytes = 0;
+			for(CompletableFuture<Void> synced : unsynced)synced.complete(null);
+			unsynced.clear();
+		}
+	}
+
+	/**
+	 * Private helper method recording a write failure and failing every
+	 * record waiting for durability.
+	 * 
+	 * @param e The failure.
+	 * @since 0.0.1
+	 */
+	private void fail(IOException e) {
+		failure = e;
+		for(CompletableFuture<Void> synced : unsynced)synced.completeExceptionally(e);
+		unsynced.clear();
+		failQueued();
+	}
+
+	/**
+	 * Private helper method discarding queued records once the appender has
+	 * failed, failing their futures. Called by enqueuers as well as the
+	 * writer, since a record may be enqueued after the writer gave up.
+	 * 
+	 * @since 0.0.2
+	 */
+	private void failQueued() {
+		IOException e = failure;
+		if(e == null)return;
+		Record record;
+		while((record = queue.poll()) != null) {
+			if(record.synced != null)record.synced.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Stops accepting records, writes and forces every queued record to
+	 * disk, and closes the file. Waits for the writer thread even if
+	 * interrupted, restoring the interrupt status afterwards.
+	 * 
+	 * @throws IOException Thrown if the remaining records could not be
+	 *                     written or the file could not be closed.
+	 * @since 0.0.1
+	 */
+	@Override
+	public void close() throws IOException {
+		closeLock.writeLock().lock();
+		try {
+			if(closed)return;
+			closed = true;
+		}finally {
+			closeLock.writeLock().unlock();
+		}
+		boolean interrupted = false;
+		for(;;) {
+			try {
+				writer.join();
+				break;
+			}catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted)Thread.currentThread().interrupt();
+
+		try {
+			if(failure != null)throw failure;
+			List<Record> rest = new ArrayList<>();
+			queue.drainTo(rest);
+			if(!rest.isEmpty())write(rest);
+			syncIfDue(true);
+		}catch(IOException e) {
+			fail(e);
+			throw e;
+		}finally {
+			channel.close();
+		}
+	}
+}
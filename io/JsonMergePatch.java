@@ -0,0 +1,122 @@
+/*  Licensing Copyright
+ * 
+ *  JSON merge patches between Jackson trees.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Computes and applies JSON merge patches (RFC 7396) between Jackson trees.
+ * Objects are patched field by field, a null removes a field, and any other
+ * value, arrays included, replaces the target wholesale.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+final class JsonMergePatch {
+	private JsonMergePatch() {}
+
+	/**
+	 * Computes the patch turning a source tree into a target tree.
+	 * 
+	 * @param source The tree before the change.
+	 * @param target The tree after the change.
+	 * @return The patch; an empty object if the trees are equal, or null if
+	 * the change sets a field to null, which a merge patch cannot express.
+	 * @since 0.0.1
+	 */
+	static JsonNode diff(JsonNode source, JsonNode target) {
+		if(!source.isObject() || !target.isObject()) {
+			if(target.isNull() && !source.isNull())return null;
+			return source.equals(target)
+					? JsonNodeFactory.instance.objectNode() : target;
+		}
+
+		ObjectNode patch = JsonNodeFactory.instance.objectNode();
+		Iterator<String> removed = source.fieldNames();
+		while(removed.hasNext()) {
+			String name = removed.next();
+			if(!target.has(name))patch.putNull(name);
+		}
+		Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+		while(fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode before = source.get(field.getKey());
+			JsonNode after = field.getValue();
+			if(before == null) {
+				if(after.isNull() || containsNull(after))return null;
+				patch.set(field.getKey(), after);
+			}else if(before.isObject() && after.isObject()) {
+				JsonNode nested = diff(before, after);
+				if(nested == null)return null;
+				if(nested.size() > 0)patch.set(field.getKey(), nested);
+			}else if(!before.equals(after)) {
+				if(after.isNull() || containsNull(after))return null;
+				patch.set(field.getKey(), after);
+			}
+		}
+		return patch;
+	}
+
+	/**
+	 * Applies a patch to a tree.
+	 * 
+	 * @param target The tree to patch; objects are modified in place.
+	 * @param patch  The patch to apply.
+	 * @return The patched tree.
+	 * @since 0.0.1
+	 */
+	static JsonNode apply(JsonNode target, JsonNode patch) {
+		if(!patch.isObject())return patch;
+		ObjectNode result = target != null && target.isObject()
+				? (ObjectNode)target : JsonNodeFactory.instance.objectNode();
+		Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+		while(fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			if(field.getValue().isNull()) {
+				result.remove(field.getKey());
+			}else {
+				result.set(field.getKey(),
+						apply(result.get(field.getKey()), field.getValue()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private helper method detecting nulls nested in objects, which
+	 * applying a patch would drop.
+	 * 
+	 * @param node The node to inspect.
+	 * @return True if an object within the node has a null field.
+	 * @since 0.0.1
+	 */
+	private static boolean containsNull(JsonNode node) {
+		if(!node.isObject())return false;
+		for(JsonNode child : node) {
+			if(child.isNull() || containsNull(child))return true;
+		}
+		return false;
+	}
+}
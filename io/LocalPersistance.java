@@ -18,30 +18,95 @@
  */
 package com.dz_fs_dev.common.io;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper; 
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.dz_fs_dev.common.io.PersistanceCodec.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
-import static com.dz_fs_dev.common.io.FileTools.tryWriteFile;
-import static com.dz_fs_dev.common.io.FileTools.tryReadFile;
+import static com.dz_fs_dev.common.io.FileTools.DEFAULT_BUFFER_SIZE;
+import static com.dz_fs_dev.common.io.FileTools.writeAtomically;
 
 /**
  * Wraps an object to allow local persistence on demand.
  * Limitation: Does not handle entity relationships.
+ * <p>
+ * Objects are encoded through a cached {@link PersistanceCodec} in a chosen
+ * {@link Format}; loads detect the format of the file. Persists and loads
+ * stream between Jackson and a buffered file channel, so no intermediate
+ * copy of the encoded object is held in memory, and persisted top-level
+ * arrays can be written and read element by element with
+ * {@link #persistAll(Iterator, Class, File, Format)} and
+ * {@link #iterate(Class, File)}.
+ * <p>
+ * In write-behind mode, started with {@link #startWriteBehind(long)},
+ * mutations only {@link #markDirty() mark} the object dirty and a shared
+ * background thread persists it at most once per interval. Dirty objects
+ * are also flushed when the JVM shuts down normally.
+ * <p>
+ * The wrapped object is serialized while holding its monitor, so threads
+ * which mutate it while it may be persisted, in particular by the
+ * write-behind thread, must do so inside {@code synchronized(getObj())}
+ * blocks to never have a half-applied change persisted; they must not
+ * persist, flush, journal or compact from within those blocks, which would
+ * invert the lock order. Flushes only hold the monitor
+ * while encoding the object into memory, not while writing the file.
+ * <p>
+ * In journal mode, started with {@link #startJournal(int)}, each
+ * {@link #journal()} appends only the JSON merge patch since the previous
+ * record to a journal file next to the snapshot, and every so many records
+ * the journal is {@link #compact() compacted} into a new snapshot. Records
+ * are framed with their length and CRC32, so {@link #load(Class, File)}
+ * replays the snapshot plus the journal and drops a torn tail. The journal
+ * starts with the CRC32 and length of the snapshot it applies to, and a
+ * journal not matching the snapshot is ignored, so a crash between writing
+ * a snapshot and emptying the journal never replays stale records. Records
+ * are handed to the operating system but only forced to disk by
+ * {@link #syncJournal()}; snapshots are always forced.
  * 
  * @param <T> The type of the wrapped object must implement Serializable.
  * 
  * @author DZ-FSDev
  * @since 17.0.1
- * @version 0.0.6
+ * @version 0.0.13
  */
 public class LocalPersistance<T extends Serializable>{
 	private T obj;
 	private File file;
+	private final Format format;
+	private volatile boolean dirty;
+	private ScheduledFuture<?> flushTask;
+	private int compactEvery;
+	private int journalRecords;
+	private JsonNode journalBase;
+	private FileChannel journal;
+
+	/** The magic number starting a journal: "LPJ1". */
+	private static final int JOURNAL_MAGIC = 0x4C504A31;
+	/** The size of the journal header: magic, snapshot CRC32 and length. */
+	private static final int JOURNAL_HEADER_SIZE = 16;
 
 	/**
 	 * The directory all persists will be written to:
@@ -49,6 +114,27 @@ public class LocalPersistance<T extends Serializable>{
 	 */
 	private static final String saveDirectory = "\\data\\";
 
+	/**
+	 * Holds the thread shared by all write-behind wrappers and flushes them
+	 * on shutdown; initialized on first use.
+	 */
+	private static final class WriteBehind {
+		static final ScheduledExecutorService FLUSHER =
+				Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "LocalPersistance-flusher");
+			t.setDaemon(true);
+			return t;
+		});
+		static final Set<LocalPersistance<?>> ACTIVE =
+				ConcurrentHashMap.newKeySet();
+
+		static {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				for(LocalPersistance<?> p : ACTIVE)p.tryFlush();
+			}, "LocalPersistance-shutdown"));
+		}
+	}
+
 	/**
 	 * Instantiates a new Local Persistence object wrapper. All persisted
 	 * objects will be stored to the {@value LocalPersistance#saveDirectory}
@@ -58,8 +144,23 @@ public class LocalPersistance<T extends Serializable>{
 	 * @param filename The name of the file to save to.
 	 */
 	public LocalPersistance(T obj, String filename){
+		this(obj, filename, Format.PRETTY_JSON);
+	}
+
+	/**
+	 * Instantiates a new Local Persistence object wrapper persisting in a
+	 * specified format. All persisted objects will be stored to the
+	 * {@value LocalPersistance#saveDirectory} directory.
+	 * 
+	 * @param obj The object to be wrapped.
+	 * @param filename The name of the file to save to.
+	 * @param format The format to persist in.
+	 * @since 0.0.7
+	 */
+	public LocalPersistance(T obj, String filename, Format format){
 		this.setObj(obj);
 		this.setFile(new File(saveDirectory + filename));
+		this.format = format;
 	}
 
 	/**
@@ -80,18 +181,484 @@ public class LocalPersistance<T extends Serializable>{
 		this.obj = obj;
 	}
 
+	/**
+	 * Returns the format the wrapped object is persisted in.
+	 * 
+	 * @return The format the wrapped object is persisted in.
+	 * @since 0.0.7
+	 */
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the codec persisting the wrapped object, whose statistics
+	 * report the encoded size and throughput.
+	 * 
+	 * @return The codec persisting the wrapped object.
+	 * @since 0.0.7
+	 */
+	public PersistanceCodec getCodec() {
+		return PersistanceCodec.of(this.getObj().getClass(), format);
+	}
+
 	/**
 	 * Persists the wrapped object to the
-	 * {@value LocalPersistance#saveDirectory} directory.
+	 * {@value LocalPersistance#saveDirectory} directory, streaming it to the
+	 * file while holding its monitor. In journal mode this
+	 * {@link #compact() compacts}, so the journal never holds patches older
+	 * than the snapshot; otherwise a journal left by an earlier journal mode
+	 * is deleted once the snapshot is written, the snapshot then being
+	 * encoded into memory first.
+	 * 
+	 * @throws IOException Thrown if object serialization or the write
+	 * failed; the previously persisted file is then left untouched.
+	 * @since 0.0.8
+	 */
+	public synchronized void persist() throws IOException {
+		if(compactEvery > 0) {
+			compact();
+			return;
+		}
+		if(journalFile(this.getFile()).exists()) {
+			persistSnapshot();
+			return;
+		}
+		PersistanceCodec codec = getCodec();
+		T obj = this.getObj();
+		synchronized(obj) {
+			writeAtomically(this.getFile(), out -> codec.write(out, obj));
+		}
+	}
+
+	/**
+	 * Private helper method persisting a snapshot of the wrapped object
+	 * encoded while holding its monitor, releasing the monitor before the
+	 * file is written.
+	 * 
+	 * @throws IOException Thrown if object serialization or the write
+	 * failed; the previously persisted file is then left untouched.
+	 * @since 0.0.12
+	 */
+	private void persistSnapshot() throws IOException {
+		PersistanceCodec codec = getCodec();
+		T obj = this.getObj();
+		byte[] data;
+		synchronized(obj) {
+			data = codec.encode(obj);
+		}
+		writeSnapshot(data);
+	}
+
+	/**
+	 * Private helper method replacing the snapshot with encoded data, then
+	 * resetting the journal to apply to it in journal mode, or deleting the
+	 * journal otherwise. Until the journal is reset its header names the
+	 * previous snapshot, so a crash in between leaves it ignored. Should the
+	 * header already match the data, the snapshot on disk is compared
+	 * instead, and left as is when equal.
 	 * 
-	 * @throws JsonProcessingException Thrown if object serialization failed.
-	 * @since 0.0.6
+	 * @param data The encoded snapshot.
+	 * @throws IOException Thrown if the write failed; the previously
+	 * persisted file is then left untouched.
+	 * @since 0.0.13
 	 */
-	public void persist() throws JsonProcessingException {
-		ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
-		String json = ow.writeValueAsString(this.getObj());
+	private void writeSnapshot(byte[] data) throws IOException {
+		File file = this.getFile();
+		File journalFile = journalFile(file);
+		ByteBuffer header = journalHeader(data);
+		if(!header.equals(readJournalHeader(journalFile)) || !file.isFile()
+				|| !Arrays.equals(data, Files.readAllBytes(file.toPath())))
+			writeAtomically(file, out -> out.write(data));
 
-		tryWriteFile(this.getFile(), json);
+		if(compactEvery > 0) {
+			FileChannel channel = journalChannel();
+			channel.truncate(0);
+			while(header.hasRemaining())channel.write(header);
+		}else {
+			Files.deleteIfExists(journalFile.toPath());
+		}
+	}
+
+	/**
+	 * Private helper method returning the journal header naming a snapshot.
+	 * 
+	 * @param snapshot The encoded snapshot.
+	 * @return The header, ready to be written.
+	 * @since 0.0.13
+	 */
+	private static ByteBuffer journalHeader(byte[] snapshot) {
+		CRC32 crc = new CRC32();
+		crc.update(snapshot);
+		return ByteBuffer.allocate(JOURNAL_HEADER_SIZE).putInt(JOURNAL_MAGIC)
+				.putInt((int)crc.getValue()).putLong(snapshot.length).flip();
+	}
+
+	/**
+	 * Private helper method reading the header of a journal.
+	 * 
+	 * @param journal The journal file.
+	 * @return The header; null if the journal is missing or too short.
+	 * @throws IOException Thrown if the journal could not be read.
+	 * @since 0.0.13
+	 */
+	private static ByteBuffer readJournalHeader(File journal)
+			throws IOException {
+		if(journal.length() < JOURNAL_HEADER_SIZE)return null;
+		ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+		try(FileChannel channel = FileChannel.open(journal.toPath(),
+				StandardOpenOption.READ)){
+			while(header.hasRemaining() && channel.read(header) >= 0);
+		}
+		return header.hasRemaining() ? null : header.flip();
+	}
+
+	/**
+	 * Private helper method converting the wrapped object to a tree while
+	 * holding its monitor.
+	 * 
+	 * @return The tree of the wrapped object.
+	 * @since 0.0.12
+	 */
+	private JsonNode snapshotTree() {
+		T obj = this.getObj();
+		synchronized(obj) {
+			return PersistanceCodec.mapper(format).valueToTree(obj);
+		}
+	}
+
+	/**
+	 * Marks the wrapped object as changed since it was last persisted. This
+	 * is a single volatile write; in write-behind mode the object will be
+	 * persisted by the next flush.
+	 * 
+	 * @since 0.0.9
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Returns whether the wrapped object changed since it was last flushed.
+	 * 
+	 * @return True if the wrapped object is marked dirty.
+	 * @since 0.0.9
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Persists the wrapped object if it is marked dirty, appending to the
+	 * journal in journal mode. Marks made while
+	 * persisting are kept for the next flush; on failure the object stays
+	 * dirty.
+	 * 
+	 * @return True if the object was persisted; false if it was clean.
+	 * @throws IOException Thrown if object serialization or the write
+	 * failed.
+	 * @since 0.0.9
+	 */
+	public synchronized boolean flush() throws IOException {
+		if(!dirty)return false;
+		dirty = false;
+		try {
+			if(compactEvery > 0) {
+				journal();
+			}else {
+				persistSnapshot();
+			}
+			return true;
+		}catch(IOException | RuntimeException e) {
+			dirty = true;
+			throw e;
+		}
+	}
+
+	/**
+	 * Private helper method flushing on the background thread, where
+	 * failures are retried by the next flush.
+	 * 
+	 * @since 0.0.9
+	 */
+	private void tryFlush() {
+		try {
+			flush();
+		}catch(IOException | RuntimeException ignored) {}
+	}
+
+	/**
+	 * Starts write-behind mode: the wrapped object is flushed on a shared
+	 * background daemon thread every interval, so any number of marks within
+	 * an interval cost at most one persist. Has no effect when already
+	 * started.
+	 * 
+	 * @param intervalMillis The interval between flushes in milliseconds.
+	 * @since 0.0.9
+	 */
+	public synchronized void startWriteBehind(long intervalMillis) {
+		if(flushTask != null)return;
+		WriteBehind.ACTIVE.add(this);
+		flushTask = WriteBehind.FLUSHER.scheduleWithFixedDelay(this::tryFlush,
+				intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops write-behind mode, if started, and flushes the wrapped object.
+	 * 
+	 * @throws IOException Thrown if the final flush failed.
+	 * @since 0.0.9
+	 */
+	public synchronized void stopWriteBehind() throws IOException {
+		if(flushTask != null) {
+			flushTask.cancel(false);
+			flushTask = null;
+			WriteBehind.ACTIVE.remove(this);
+		}
+		flush();
+	}
+
+	/**
+	 * Starts journal mode: {@link #journal()}, and flushes, append the
+	 * changes since the previous record instead of rewriting the snapshot.
+	 * The first record after starting writes a fresh snapshot.
+	 * 
+	 * @param compactEvery The number of records after which the journal is
+	 * compacted into a new snapshot.
+	 * @throws IllegalArgumentException Thrown when compactEvery is less than
+	 * 1.
+	 * @since 0.0.10
+	 */
+	public synchronized void startJournal(int compactEvery) {
+		if(compactEvery < 1)throw new IllegalArgumentException(
+				"compactEvery cannot be less than 1.");
+		this.compactEvery = compactEvery;
+	}
+
+	/**
+	 * Stops journal mode, closing the journal file. The snapshot and the
+	 * journal are left on disk and remain loadable.
+	 * 
+	 * @throws IOException Thrown if the journal could not be closed.
+	 * @since 0.0.10
+	 */
+	public synchronized void stopJournal() throws IOException {
+		compactEvery = 0;
+		journalBase = null;
+		if(journal != null) {
+			journal.close();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Appends the changes to the wrapped object since the previous record
+	 * to the journal as a JSON merge patch, compacting when due. Nothing is
+	 * appended if the object did not change. Changes a merge patch cannot
+	 * express, setting a field to null, are compacted instead.
+	 * 
+	 * @throws IOException Thrown if object serialization or the write
+	 * failed.
+	 * @throws IllegalStateException Thrown when not in journal mode.
+	 * @since 0.0.10
+	 */
+	public synchronized void journal() throws IOException {
+		if(compactEvery == 0)throw new IllegalStateException(
+				"Journal mode is not started.");
+		if(journalBase == null) {
+			compact();
+			return;
+		}
+		JsonNode tree = snapshotTree();
+		JsonNode patch = JsonMergePatch.diff(journalBase, tree);
+		if(patch == null) {
+			compact();
+			return;
+		}
+		if(patch.isObject() && patch.size() == 0)return;
+
+		Format recordFormat = format == Format.SMILE ? format : Format.JSON;
+		byte[] data = PersistanceCodec.mapper(recordFormat)
+				.writeValueAsBytes(patch);
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ByteBuffer[] record = {ByteBuffer.allocate(8).putInt(data.length)
+				.putInt((int)crc.getValue()).flip(), ByteBuffer.wrap(data)};
+		FileChannel channel = journalChannel();
+		while(record[1].hasRemaining())channel.write(record);
+		journalBase = tree;
+
+		if(++journalRecords >= compactEvery)compact();
+	}
+
+	/**
+	 * Writes a new snapshot of the wrapped object and empties the journal.
+	 * 
+	 * @throws IOException Thrown if object serialization or the write
+	 * failed.
+	 * @throws IllegalStateException Thrown when not in journal mode.
+	 * @since 0.0.10
+	 */
+	public synchronized void compact() throws IOException {
+		if(compactEvery == 0)throw new IllegalStateException(
+				"Journal mode is not started.");
+		JsonNode tree = snapshotTree();
+		writeSnapshot(PersistanceCodec.of(JsonNode.class, format).encode(tree));
+		journalBase = tree;
+		journalRecords = 0;
+	}
+
+	/**
+	 * Forces the records appended to the journal so far to disk, making them
+	 * survive a power loss. Does nothing when no journal is open.
+	 * 
+	 * @throws IOException Thrown if the journal could not be forced.
+	 * @since 0.0.13
+	 */
+	public synchronized void syncJournal() throws IOException {
+		if(journal != null)journal.force(false);
+	}
+
+	/**
+	 * Private helper method opening the journal on first use.
+	 * 
+	 * @return The channel appending to the journal.
+	 * @throws IOException Thrown if the journal could not be opened.
+	 * @since 0.0.10
+	 */
+	private FileChannel journalChannel() throws IOException {
+		if(journal == null) {
+			FileTools.createParentDirectories(this.getFile());
+			journal = FileChannel.open(journalFile(this.getFile()).toPath(),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+		return journal;
+	}
+
+	/**
+	 * Private helper method returning the journal of a snapshot file.
+	 * 
+	 * @param file The snapshot file.
+	 * @return The journal file next to it.
+	 * @since 0.0.10
+	 */
+	private static File journalFile(File file) {
+		return new File(file.getPath() + ".journal");
+	}
+
+	/**
+	 * Private helper method applying the records of a journal to a tree,
+	 * stopping at the first torn or corrupt record and truncating the
+	 * journal there. A journal whose header does not name the snapshot is
+	 * stale and emptied without being applied.
+	 * 
+	 * @param tree    The snapshot tree.
+	 * @param header  The journal header naming the snapshot.
+	 * @param journal The journal file.
+	 * @return The patched tree.
+	 * @throws IOException Thrown if the journal could not be read.
+	 * @since 0.0.10
+	 */
+	private static JsonNode replay(JsonNode tree, ByteBuffer header,
+			File journal) throws IOException {
+		long size = journal.length(), valid = 0;
+		if(header.equals(readJournalHeader(journal))) {
+			valid = JOURNAL_HEADER_SIZE;
+			try(DataInputStream in = new DataInputStream(open(journal))){
+				in.skipNBytes(JOURNAL_HEADER_SIZE);
+				CRC32 crc = new CRC32();
+				while(valid + 8 <= size) {
+					int length = in.readInt();
+					int checksum = in.readInt();
+					if(length < 0 || length > size - valid - 8)break;
+					byte[] data = new byte[length];
+					in.readFully(data);
+					crc.reset();
+					crc.update(data);
+					if((int)crc.getValue() != checksum)break;
+					ObjectMapper mapper = PersistanceCodec.mapper(
+							PersistanceCodec.detect(data));
+					tree = JsonMergePatch.apply(tree, mapper.readTree(data));
+					valid += 8 + length;
+				}
+			}catch(EOFException e) {
+				// Torn tail.
+			}
+		}
+		if(valid < size) {
+			try(FileChannel channel = FileChannel.open(journal.toPath(),
+					StandardOpenOption.WRITE)){
+				channel.truncate(valid);
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * Persists the elements of a specified iterator as a top-level array,
+	 * encoding one element at a time.
+	 * 
+	 * @param <E> The type of the elements.
+	 * @param elements The elements to persist.
+	 * @param type The specified type of the elements.
+	 * @param file The specified file to write to.
+	 * @param format The format to persist in.
+	 * @return The number of elements persisted.
+	 * @throws IOException Thrown if serialization or the write failed; the
+	 * previously persisted file is then left untouched.
+	 * @since 0.0.8
+	 */
+	public static <E> long persistAll(Iterator<? extends E> elements,
+			Class<E> type, File file, Format format) throws IOException {
+		PersistanceCodec codec = PersistanceCodec.of(type, format);
+		long[] count = new long[1];
+		writeAtomically(file, out -> {
+			try(SequenceWriter writer = codec.writeValues(out)){
+				while(elements.hasNext()) {
+					writer.write(elements.next());
+					count[0]++;
+				}
+			}
+		});
+		return count[0];
+	}
+
+	/**
+	 * Opens a persisted top-level array for reading element by element, so
+	 * collections much larger than the heap can be consumed. The returned
+	 * iterator must be closed.
+	 * 
+	 * @param <E> The type of the elements.
+	 * @param type The specified type of the elements.
+	 * @param file The specified file to read from.
+	 * @return An iterator over the persisted elements.
+	 * @throws IOException Thrown if the file could not be opened.
+	 * @since 0.0.8
+	 */
+	public static <E> MappingIterator<E> iterate(Class<E> type, File file)
+			throws IOException {
+		InputStream in = open(file);
+		try {
+			return PersistanceCodec.of(type, PersistanceCodec.detect(in))
+					.readValues(in);
+		}catch(IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Private helper method opening a buffered stream over a file channel.
+	 * 
+	 * @param file The specified file to read from.
+	 * @return A buffered stream supporting mark and reset.
+	 * @throws IOException Thrown if the file could not be opened.
+	 * @since 0.0.8
+	 */
+	private static InputStream open(File file) throws IOException {
+		return new BufferedInputStream(Channels.newInputStream(FileChannel.open(
+				file.toPath(), StandardOpenOption.READ)), DEFAULT_BUFFER_SIZE);
 	}
 
 	/**
@@ -114,24 +681,36 @@ public class LocalPersistance<T extends Serializable>{
 
 	/**
 	 * Attempts to read a persisted object from the disk for a specified
-	 * Serializable class.
+	 * Serializable class, replaying the journal next to it if any.
 	 * 
 	 * @param <T> The type of the wrapped object must implement Serializable.
 	 * @param clazz The specified type of the wrapped object.
 	 * @param file The specified file to load from.
-	 * @return A new LocalPersistance object wrapping the loaded object.
-	 * @throws JsonProcessingException Thrown if deserialization failed.
-	 * @throws JsonMappingException Thrown if deserialization failed.
-	 * @since 0.0.5
+	 * @return A new LocalPersistance object wrapping the loaded object,
+	 * persisting in the format it was loaded from.
+	 * @throws IOException Thrown if the file could not be read or
+	 * deserialization failed.
+	 * @since 0.0.10
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T extends Serializable> LocalPersistance<T> load(Class<T> clazz,
-			File file) throws JsonMappingException, JsonProcessingException {
-		T obj;		
-		String json = tryReadFile(file.getPath());		
-		ObjectMapper mapper = new ObjectMapper();
-		obj = (T)mapper.readValue(json, clazz.getClass());
+			File file) throws IOException {
+		Format format;
+		T obj;
+		File journal = journalFile(file);
+		if(journal.length() > 0) {
+			byte[] data = Files.readAllBytes(file.toPath());
+			format = PersistanceCodec.detect(data);
+			ObjectMapper mapper = PersistanceCodec.mapper(format);
+			obj = mapper.treeToValue(replay(mapper.readTree(data),
+					journalHeader(data), journal), clazz);
+		}else {
+			try(InputStream in = open(file)){
+				format = PersistanceCodec.detect(in);
+				obj = PersistanceCodec.of(clazz, format).read(in);
+			}
+		}
 
-		return new LocalPersistance<T>(obj, file.getName());
+		return new LocalPersistance<T>(obj, file.getName(),
+				format == Format.SMILE ? format : Format.PRETTY_JSON);
 	}
 }
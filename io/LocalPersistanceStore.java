@@ -0,0 +1,413 @@
+/*  Licensing Copyright
+ * 
+ *  Keyed store persisting many objects in segment files.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import com.dz_fs_dev.common.io.PersistanceCodec.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Persists many keyed objects in a directory of append-only segment files
+ * instead of one file per object. Every put appends the encoded value to the
+ * current segment and an entry to an index log mapping the key to the
+ * segment, offset and length of the record; removes append a tombstone.
+ * <p>
+ * On open the index log is memory-mapped and scanned into an in-memory
+ * index without decoding any value. A {@link #get(Object)} is then a single
+ * positioned read of the record, decoded on demand, and recently decoded
+ * values are kept in an LRU cache. Records and index entries carry a CRC32,
+ * so a torn tail left by a crash is dropped on open.
+ * <p>
+ * Overwritten and removed records are not reclaimed.
+ * 
+ * @param <K> The type of the keys, encoded with Jackson.
+ * @param <T> The type of the stored objects must implement Serializable.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class LocalPersistanceStore<K, T extends Serializable>
+		implements AutoCloseable {
+	/**
+	 * The default maximum size of a segment in bytes:
+	 * {@value #DEFAULT_SEGMENT_BYTES}.
+	 */
+	public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+	/**
+	 * The default number of decoded values cached:
+	 * {@value #DEFAULT_CACHE_SIZE}.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	/** Size of an index entry before its key: length, segment, offset, CRC. */
+	private static final int INDEX_HEADER = 4 + 4 + 8 + 4 + 4;
+
+	/** Largest window of the index log mapped at once. */
+	private static final int MAP_WINDOW = 1 << 30;
+
+	private final File directory;
+	private final PersistanceCodec codec;
+	private final ObjectMapper keyMapper;
+	private final ObjectReader keyReader;
+	private final long segmentBytes;
+	private final Map<K, Location> index = new ConcurrentHashMap<>();
+	private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+	private final Map<K, T> cache;
+	private final FileChannel indexLog;
+	private int segment;
+	private long segmentEnd;
+
+	/**
+	 * The location of a record.
+	 */
+	private static final class Location {
+		final int segment;
+		final long offset;
+		final int length;
+
+		Location(int segment, long offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Opens a store in a specified directory with the default segment size
+	 * and cache size, encoding values as compact JSON.
+	 * 
+	 * @param directory The directory of the store, created if missing.
+	 * @param keyType   The class of the keys.
+	 * @param valueType The class of the stored objects.
+	 * @throws IOException Thrown if the store could not be opened.
+	 * @since 0.0.1
+	 */
+	public LocalPersistanceStore(File directory, Class<K> keyType,
+			Class<T> valueType) throws IOException {
+		this(directory, keyType, valueType, Format.JSON, DEFAULT_CACHE_SIZE,
+				DEFAULT_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Opens a store in a specified directory.
+	 * 
+	 * @param directory    The directory of the store, created if missing.
+	 * @param keyType      The class of the keys.
+	 * @param valueType    The class of the stored objects.
+	 * @param format       The format new values are encoded in; existing
+	 *                     records are read in their own format.
+	 * @param cacheSize    The number of decoded values to cache.
+	 * @param segmentBytes The size after which a new segment is started.
+	 * @throws IOException Thrown if the store could not be opened.
+	 * @since 0.0.1
+	 */
+	public LocalPersistanceStore(File directory, Class<K> keyType,
+			Class<T> valueType, Format format, int cacheSize,
+			long segmentBytes) throws IOException {
+		this.directory = directory;
+		this.codec = PersistanceCodec.of(valueType,
+				format == Format.SMILE ? format : Format.JSON);
+		this.keyMapper = PersistanceCodec.mapper(Format.JSON);
+		this.keyReader = keyMapper.readerFor(keyType);
+		this.segmentBytes = segmentBytes;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, T> eldest) {
+				return size() > cacheSize;
+			}
+		};
+
+		Files.createDirectories(directory.toPath());
+		this.indexLog = FileChannel.open(new File(directory, "index.log")
+				.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		loadIndex();
+		this.segmentEnd = segment(segment).size();
+	}
+
+	/**
+	 * Private helper method scanning the memory-mapped index log into the
+	 * index and truncating a torn tail.
+	 * 
+	 * @throws IOException Thrown if the index log could not be read.
+	 * @since 0.0.1
+	 */
+	private void loadIndex() throws IOException {
+		long size = indexLog.size(), position = 0;
+		CRC32 crc = new CRC32();
+		scan:
+		while(position < size) {
+			MappedByteBuffer map = indexLog.map(FileChannel.MapMode.READ_ONLY,
+					position, Math.min(size - position, MAP_WINDOW));
+			int consumed = 0;
+			while(map.remaining() >= INDEX_HEADER) {
+				int start = map.position();
+				int keyLength = map.getInt();
+				int seg = map.getInt();
+				long offset = map.getLong();
+				int length = map.getInt();
+				int checksum = map.getInt();
+				if(keyLength < 0 || keyLength > map.remaining()) {
+					if(map.limit() == size - position)break scan;
+					break;
+				}
+				byte[] key = new byte[keyLength];
+				map.get(key);
+				crc.reset();
+				crc.update(map.duplicate().position(start).limit(start + 20));
+				crc.update(key);
+				if((int)crc.getValue() != checksum)break scan;
+
+				K k = keyReader.readValue(key);
+				if(length < 0) {
+					index.remove(k);
+				}else {
+					index.put(k, new Location(seg, offset, length));
+				}
+				segment = Math.max(segment, seg);
+				consumed = map.position();
+			}
+			if(consumed == 0)break;
+			position += consumed;
+		}
+		if(position < size)indexLog.truncate(position);
+		indexLog.position(position);
+	}
+
+	/**
+	 * Private helper method returning the channel of a segment, opening it
+	 * on first use.
+	 * 
+	 * @param id The id of the segment.
+	 * @return The channel of the segment.
+	 * @throws IOException Thrown if the segment could not be opened.
+	 * @since 0.0.1
+	 */
+	private FileChannel segment(int id) throws IOException {
+		FileChannel channel = segments.get(id);
+		if(channel != null)return channel;
+		synchronized(segments) {
+			channel = segments.get(id);
+			if(channel == null) {
+				channel = FileChannel.open(new File(directory,
+						String.format("segment-%05d.dat", id)).toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE);
+				segments.put(id, channel);
+			}
+			return channel;
+		}
+	}
+
+	/**
+	 * Returns the object stored under a specified key, decoding it with a
+	 * single positioned read unless it is cached.
+	 * 
+	 * @param key The key of the object.
+	 * @return The stored object; null if none.
+	 * @throws IOException Thrown if the record could not be read or decoded.
+	 * @since 0.0.1
+	 */
+	public T get(K key) throws IOException {
+		synchronized(cache) {
+			T cached = cache.get(key);
+			if(cached != null)return cached;
+		}
+		Location location = index.get(key);
+		if(location == null)return null;
+
+		ByteBuffer record = ByteBuffer.allocate(8 + location.length);
+		FileChannel channel = segment(location.segment);
+		while(record.hasRemaining()) {
+			if(channel.read(record, location.offset + record.position()) < 0)
+				throw new IOException("Record of " + key + " is truncated.");
+		}
+		record.flip();
+		int length = record.getInt();
+		int checksum = record.getInt();
+		CRC32 crc = new CRC32();
+		crc.update(record.duplicate());
+		if(length != location.length || (int)crc.getValue() != checksum)
+			throw new IOException("Record of " + key + " is corrupt.");
+
+		byte[] data = new byte[length];
+		record.get(data);
+		T value = PersistanceCodec.of(codec.getType(),
+				PersistanceCodec.detect(data)).decode(data);
+		synchronized(cache) {
+			if(index.get(key) == location)cache.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Stores an object under a specified key, replacing any previous one.
+	 * 
+	 * @param key   The key of the object.
+	 * @param value The object to store.
+	 * @throws IOException Thrown if serialization or the write failed.
+	 * @since 0.0.1
+	 */
+	public synchronized void put(K key, T value) throws IOException {
+		byte[] data = codec.encode(value);
+		if(segmentEnd > 0 && segmentEnd + 8 + data.length > segmentBytes) {
+			segment++;
+			segmentEnd = segment(segment).size();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ByteBuffer record = ByteBuffer.allocate(8 + data.length)
+				.putInt(data.length).putInt((int)crc.getValue()).put(data).flip();
+		FileChannel channel = segment(segment);
+		long offset = segmentEnd;
+		while(record.hasRemaining())
+			channel.write(record, offset + record.position());
+		segmentEnd = offset + record.limit();
+
+		Location location = new Location(segment, offset, data.length);
+		appendIndex(key, location);
+		synchronized(cache) {
+			index.put(key, location);
+			cache.put(key, value);
+		}
+	}
+
+	/**
+	 * Removes the object stored under a specified key.
+	 * 
+	 * @param key The key of the object.
+	 * @return True if an object was removed.
+	 * @throws IOException Thrown if the tombstone could not be written.
+	 * @since 0.0.1
+	 */
+	public synchronized boolean remove(K key) throws IOException {
+		if(!index.containsKey(key))return false;
+		appendIndex(key, new Location(0, 0, -1));
+		synchronized(cache) {
+			index.remove(key);
+			cache.remove(key);
+		}
+		return true;
+	}
+
+	/**
+	 * Private helper method appending an entry, or a tombstone when the
+	 * length is negative, to the index log.
+	 * 
+	 * @param key      The key of the entry.
+	 * @param location The location of the record.
+	 * @throws IOException Thrown if the index log could not be written.
+	 * @since 0.0.1
+	 */
+	private void appendIndex(K key, Location location) throws IOException {
+		byte[] k = keyMapper.writeValueAsBytes(key);
+		ByteBuffer entry = ByteBuffer.allocate(INDEX_HEADER + k.length)
+				.putInt(k.length).putInt(location.segment)
+				.putLong(location.offset).putInt(location.length);
+		CRC32 crc = new CRC32();
+		crc.update(entry.array(), 0, entry.position());
+		crc.update(k);
+		entry.putInt((int)crc.getValue()).put(k).flip();
+		while(entry.hasRemaining())indexLog.write(entry);
+	}
+
+	/**
+	 * Returns whether an object is stored under a specified key.
+	 * 
+	 * @param key The key.
+	 * @return True if an object is stored under the key.
+	 * @since 0.0.1
+	 */
+	public boolean containsKey(K key) {
+		return index.containsKey(key);
+	}
+
+	/**
+	 * Returns a live, unmodifiable view of the stored keys.
+	 * 
+	 * @return The stored keys.
+	 * @since 0.0.1
+	 */
+	public Set<K> keySet() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	/**
+	 * Returns the number of stored objects.
+	 * 
+	 * @return The number of stored objects.
+	 * @since 0.0.1
+	 */
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * Returns the codec encoding the stored objects, whose statistics
+	 * report the encoded size and throughput.
+	 * 
+	 * @return The codec encoding the stored objects.
+	 * @since 0.0.1
+	 */
+	public PersistanceCodec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * Forces the segments and the index log to the storage device.
+	 * 
+	 * @throws IOException Thrown if a file could not be forced.
+	 * @since 0.0.1
+	 */
+	public synchronized void sync() throws IOException {
+		for(FileChannel channel : segments.values())channel.force(false);
+		indexLog.force(false);
+	}
+
+	/**
+	 * Closes the segment files and the index log.
+	 * 
+	 * @throws IOException Thrown if a file could not be closed.
+	 * @since 0.0.1
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for(FileChannel channel : segments.values())channel.close();
+		indexLog.close();
+	}
+}
@@ -0,0 +1,371 @@
+/*  Licensing Copyright
+ * 
+ *  Memory-mapped parallel line scanner for very large files.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Scans the lines of very large files in parallel. The file is memory-mapped
+ * in chunks of roughly a configured size, each ending on a newline, so files
+ * beyond 2 GB are supported, and the chunks are scanned on a
+ * {@link ForkJoinPool}. Lines are handed to callers as zero-copy
+ * {@link ByteBuffer} views of the mapping without their line terminator;
+ * {@link ByteCharSequence} offers a reusable {@link CharSequence} view of
+ * them for single byte encodings.
+ * <p>
+ * The view passed to a handler is reused for the next line of the same
+ * chunk, so handlers must copy anything they need to retain.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.1
+ */
+public class MappedLineScanner {
+	/**
+	 * The default chunk size in bytes: {@value #DEFAULT_CHUNK_SIZE}.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+	private final File file;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Receives the lines of a file.
+	 * 
+	 * @since 0.0.1
+	 */
+	@FunctionalInterface
+	public interface LineHandler {
+		/**
+		 * Receives a line; the view is only valid during the call.
+		 * 
+		 * @param line A view of the line positioned at its first byte and
+		 *             limited after its last byte.
+		 * @since 0.0.1
+		 */
+		void onLine(ByteBuffer line);
+	}
+
+	/**
+	 * Receives the lines of a single chunk in order and produces a result
+	 * for the chunk.
+	 * 
+	 * @param <R> The type of the chunk result.
+	 * @since 0.0.1
+	 */
+	public interface ChunkHandler<R> extends LineHandler {
+		/**
+		 * Returns the result of the chunk once all its lines were handled.
+		 * 
+		 * @return The result of the chunk.
+		 * @since 0.0.1
+		 */
+		R result();
+	}
+
+	/**
+	 * Constructs a scanner over a specified file with the default chunk
+	 * size, using the common pool.
+	 * 
+	 * @param file The file to scan.
+	 * @since 0.0.1
+	 */
+	public MappedLineScanner(File file) {
+		this(file, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a scanner over a specified file.
+	 * 
+	 * @param file      The file to scan.
+	 * @param chunkSize The approximate size of each chunk in bytes.
+	 * @param pool      The pool scanning the chunks.
+	 * @throws IllegalArgumentException Thrown when chunkSize is less than 1.
+	 * @since 0.0.1
+	 */
+	public MappedLineScanner(File file, int chunkSize, ForkJoinPool pool) {
+		if(chunkSize < 1)throw new IllegalArgumentException(
+				"chunkSize cannot be less than 1.");
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+	}
+
+	/**
+	 * Scans every line of the file with a single handler invoked
+	 * concurrently from several threads, in no particular order.
+	 * 
+	 * @param handler The thread-safe handler receiving every line.
+	 * @throws IOException Thrown if the file could not be read.
+	 * @since 0.0.1
+	 */
+	public void scanUnordered(LineHandler handler) throws IOException {
+		scan(() -> new ChunkHandler<Void>() {
+			@Override
+			public void onLine(ByteBuffer line) {
+				handler.onLine(line);
+			}
+
+			@Override
+			public Void result() {
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Scans every line of the file with one handler per chunk. Each handler
+	 * receives the lines of its chunk in order, and the chunk results are
+	 * returned in file order, so ordered results can be built in parallel.
+	 * 
+	 * @param <R>      The type of the chunk results.
+	 * @param handlers Supplies a new handler for each chunk.
+	 * @return The chunk results in file order.
+	 * @throws IOException Thrown if the file could not be read.
+	 * @since 0.0.1
+	 */
+	public <R> List<R> scanOrdered(
+			Supplier<? extends ChunkHandler<R>> handlers) throws IOException {
+		return scan(handlers);
+	}
+
+	/**
+	 * Private helper method splitting the file into chunks and scanning them
+	 * on the pool.
+	 * 
+	 * @param <R>      The type of the chunk results.
+	 * @param handlers Supplies a new handler for each chunk.
+	 * @return The chunk results in file order.
+	 * @throws IOException Thrown if the file could not be read.
+	 * @since 0.0.1
+	 */
+	private <R> List<R> scan(Supplier<? extends ChunkHandler<R>> handlers)
+			throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)){
+			List<ForkJoinTask<R>> tasks = new ArrayList<>();
+			long size = channel.size();
+			for(long start = 0; start < size;) {
+				long end = chunkEnd(channel, start, size);
+				long chunkStart = start;
+				ChunkHandler<R> handler = handlers.get();
+				tasks.add(pool.submit(
+						() -> scanChunk(channel, chunkStart, end, handler)));
+				start = end;
+			}
+
+			List<R> results = new ArrayList<>(tasks.size());
+			for(ForkJoinTask<R> task : tasks) {
+				try {
+					results.add(task.get());
+				}catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}catch(ExecutionException e) {
+					if(e.getCause() instanceof IOException)
+						throw (IOException)e.getCause();
+					if(e.getCause() instanceof RuntimeException)
+						throw (RuntimeException)e.getCause();
+					throw new IOException(e.getCause());
+				}
+			}
+			return results;
+		}
+	}
+
+	/**
+	 * Private helper method finding the end of the chunk starting at a
+	 * specified position: just past the first newline at or after the
+	 * nominal chunk size, or the end of the file.
+	 * 
+	 * @param channel The channel of the file.
+	 * @param start   The start of the chunk.
+	 * @param size    The size of the file.
+	 * @return The exclusive end of the chunk.
+	 * @throws IOException Thrown if the file could not be read or a line
+	 *                     does not fit into a single mapping.
+	 * @since 0.0.1
+	 */
+	private long chunkEnd(FileChannel channel, long start, long size)
+			throws IOException {
+		long pos = start + chunkSize - 1;
+		ByteBuffer probe = ByteBuffer.allocate(8192);
+		while(pos < size) {
+			probe.clear();
+			int read = channel.read(probe, pos);
+			if(read < 0)break;
+			for(int i = 0; i < read; i++) {
+				if(probe.get(i) == '\n')return checkChunk(start, pos + i + 1);
+			}
+			pos += read;
+		}
+		return checkChunk(start, size);
+	}
+
+	/**
+	 * Private helper method ensuring a chunk fits into a single mapping.
+	 * 
+	 * @param start The start of the chunk.
+	 * @param end   The exclusive end of the chunk.
+	 * @return The exclusive end of the chunk.
+	 * @throws IOException Thrown if the chunk is larger than 2 GB.
+	 * @since 0.0.1
+	 */
+	private static long checkChunk(long start, long end) throws IOException {
+		if(end - start > Integer.MAX_VALUE)throw new IOException(
+				"A line starting after offset " + start + " exceeds 2 GB.");
+		return end;
+	}
+
+	/**
+	 * Private helper method mapping a chunk and passing each of its lines to
+	 * a handler.
+	 * 
+	 * @param <R>     The type of the chunk result.
+	 * @param channel The channel of the file.
+	 * @param start   The start of the chunk.
+	 * @param end     The exclusive end of the chunk.
+	 * @param handler The handler of the chunk.
+	 * @return The result of the chunk.
+	 * @throws IOException Thrown if the chunk could not be mapped.
+	 * @since 0.0.1
+	 */
+	private static <R> R scanChunk(FileChannel channel, long start, long end,
+			ChunkHandler<R> handler) throws IOException {
+		MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+				start, end - start);
+		ByteBuffer line = map.duplicate();
+		int limit = map.limit();
+		int lineStart = 0;
+		for(int i = 0; i < limit; i++) {
+			if(map.get(i) == '\n') {
+				emit(map, line, lineStart, i, handler);
+				lineStart = i + 1;
+			}
+		}
+		if(lineStart < limit)emit(map, line, lineStart, limit, handler);
+		return handler.result();
+	}
+
+	/**
+	 * Private helper method positioning the reused view on a line, without
+	 * its carriage return if any, and passing it to a handler.
+	 * 
+	 * @param map     The mapped chunk.
+	 * @param line    The reused view.
+	 * @param start   The first byte of the line.
+	 * @param end     The exclusive end of the line before its newline.
+	 * @param handler The handler of the chunk.
+	 * @since 0.0.1
+	 */
+	private static void emit(ByteBuffer map, ByteBuffer line, int start,
+			int end, LineHandler handler) {
+		if(end > start && map.get(end - 1) == '\r')end--;
+		line.limit(end);
+		line.position(start);
+		handler.onLine(line);
+	}
+
+	/**
+	 * Reusable {@link CharSequence} view of a {@link ByteBuffer} holding
+	 * single byte characters, such as ASCII or ISO-8859-1 text. Wrapping a
+	 * buffer copies nothing; each char is decoded on access.
+	 * 
+	 * @author DZ-FSDev
+	 * @since 17.0.2
+	 * @version 0.0.1
+	 */
+	public static final class ByteCharSequence implements CharSequence {
+		private ByteBuffer buffer;
+		private int offset, length;
+
+		/**
+		 * Points this view at the remaining bytes of a buffer.
+		 * 
+		 * @param buffer The buffer to view; its position and limit are not
+		 *               changed.
+		 * @return This view.
+		 * @since 0.0.1
+		 */
+		public ByteCharSequence wrap(ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.offset = buffer.position();
+			this.length = buffer.remaining();
+			return this;
+		}
+
+		/**
+		 * @since 0.0.1
+		 */
+		@Override
+		public int length() {
+			return length;
+		}
+
+		/**
+		 * @since 0.0.1
+		 */
+		@Override
+		public char charAt(int index) {
+			if(index < 0 || index >= length)
+				throw new IndexOutOfBoundsException(index);
+			return (char)(buffer.get(offset + index) & 0xFF);
+		}
+
+		/**
+		 * @since 0.0.1
+		 */
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if(start < 0 || end > length || start > end)
+				throw new IndexOutOfBoundsException();
+			ByteCharSequence sub = new ByteCharSequence();
+			sub.buffer = buffer;
+			sub.offset = offset + start;
+			sub.length = end - start;
+			return sub;
+		}
+
+		/**
+		 * Copies the viewed bytes into a new ISO-8859-1 decoded String.
+		 * 
+		 * @since 0.0.1
+		 */
+		@Override
+		public String toString() {
+			byte[] bytes = new byte[length];
+			buffer.get(offset, bytes);
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		}
+	}
+}
@@ -0,0 +1,456 @@
+/*  Licensing Copyright
+ * 
+ *  Cached Jackson codecs for local persistence.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Reusable Jackson codec for a single class and {@link Format}. The mappers
+ * are shared and the {@link ObjectWriter} and {@link ObjectReader} of each
+ * class are built once, so serializers are only introspected on first use.
+ * Each codec keeps {@link Stats} of its writes and reads to help choose a
+ * format per type.
+ * <p>
+ * Besides byte arrays, values can be streamed to and from streams, which
+ * single value writes and reads leave open, and top-level arrays can be
+ * written and read element by element.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.5
+ */
+public final class PersistanceCodec {
+	/**
+	 * The encodings a codec can write.
+	 * 
+	 * @since 0.0.1
+	 */
+	public enum Format {
+		/** Indented JSON, as historically written by LocalPersistance. */
+		PRETTY_JSON,
+		/** Compact JSON. */
+		JSON,
+		/** Jackson's binary Smile encoding of JSON. */
+		SMILE;
+	}
+
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	private static final ObjectMapper SMILE_MAPPER =
+			new ObjectMapper(new SmileFactory())
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	private static final ClassValue<PersistanceCodec[]> CODECS =
+			new ClassValue<>() {
+		@Override
+		protected PersistanceCodec[] computeValue(Class<?> type) {
+			Format[] formats = Format.values();
+			PersistanceCodec[] codecs = new PersistanceCodec[formats.length];
+			for(Format format : formats)
+				codecs[format.ordinal()] = new PersistanceCodec(type, format);
+			return codecs;
+		}
+	};
+
+	private final Class<?> type;
+	private final Format format;
+	private final ObjectWriter writer;
+	private final ObjectReader reader;
+	private final Stats stats = new Stats();
+
+	/**
+	 * Write and read statistics of a codec.
+	 * 
+	 * @since 0.0.1
+	 */
+	public static final class Stats {
+		private final LongAdder writes = new LongAdder();
+		private final LongAdder writeBytes = new LongAdder();
+		private final LongAdder writeNanos = new LongAdder();
+		private final LongAdder reads = new LongAdder();
+		private final LongAdder readBytes = new LongAdder();
+		private final LongAdder readNanos = new LongAdder();
+
+		private Stats() {}
+
+		void recordWrite(long bytes, long nanos) {
+			writes.increment();
+			writeBytes.add(bytes);
+			writeNanos.add(nanos);
+		}
+
+		void recordRead(long bytes, long nanos) {
+			reads.increment();
+			readBytes.add(bytes);
+			readNanos.add(nanos);
+		}
+
+		/**
+		 * Returns the number of objects written.
+		 * 
+		 * @return The number of objects written.
+		 * @since 0.0.1
+		 */
+		public long getWrites() {
+			return writes.sum();
+		}
+
+		/**
+		 * Returns the number of bytes written.
+		 * 
+		 * @return The number of bytes written.
+		 * @since 0.0.1
+		 */
+		public long getWriteBytes() {
+			return writeBytes.sum();
+		}
+
+		/**
+		 * Returns the number of objects read.
+		 * 
+		 * @return The number of objects read.
+		 * @since 0.0.1
+		 */
+		public long getReads() {
+			return reads.sum();
+		}
+
+		/**
+		 * Returns the number of bytes read.
+		 * 
+		 * @return The number of bytes read.
+		 * @since 0.0.1
+		 */
+		public long getReadBytes() {
+			return readBytes.sum();
+		}
+
+		/**
+		 * Returns the average encoded size of the objects written.
+		 * 
+		 * @return The average number of bytes per write; 0 if none.
+		 * @since 0.0.1
+		 */
+		public double getAverageSize() {
+			long n = writes.sum();
+			return n == 0 ? 0 : (double)writeBytes.sum() / n;
+		}
+
+		/**
+		 * Returns the write throughput. Writes to a stream are timed
+		 * including the time the stream takes, such as file IO, so only
+		 * writes to byte arrays measure pure encoding.
+		 * 
+		 * @return The bytes written per second; 0 if none.
+		 * @since 0.0.1
+		 */
+		public double getWriteThroughput() {
+			long nanos = writeNanos.sum();
+			return nanos == 0 ? 0 : writeBytes.sum() * 1e9 / nanos;
+		}
+
+		/**
+		 * Returns the read throughput. Reads from a stream are timed
+		 * including the time the stream takes, such as file IO, so only
+		 * reads from byte arrays measure pure decoding.
+		 * 
+		 * @return The bytes read per second; 0 if none.
+		 * @since 0.0.1
+		 */
+		public double getReadThroughput() {
+			long nanos = readNanos.sum();
+			return nanos == 0 ? 0 : readBytes.sum() * 1e9 / nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("writes=%d avgSize=%.1f write=%.1fMB/s "
+					+ "reads=%d read=%.1fMB/s", getWrites(), getAverageSize(),
+					getWriteThroughput() / 1e6, getReads(),
+					getReadThroughput() / 1e6);
+		}
+	}
+
+	/**
+	 * Counts the bytes written through it.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+		long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * Counts the bytes read through it. Closing it leaves the underlying
+	 * stream open, since Jackson closes the sources it reads values from.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if(b >= 0)count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if(n > 0)count += n;
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public void close() {
+			// Left open for the caller.
+		}
+	}
+
+	/**
+	 * Private constructor building the writer and reader of a class.
+	 * 
+	 * @param type   The class to encode.
+	 * @param format The encoding.
+	 * @since 0.0.1
+	 */
+	private PersistanceCodec(Class<?> type, Format format) {
+		this.type = type;
+		this.format = format;
+		ObjectMapper mapper = mapper(format);
+		ObjectWriter w = mapper.writerFor(type);
+		this.writer = format == Format.PRETTY_JSON
+				? w.withDefaultPrettyPrinter() : w;
+		this.reader = mapper.readerFor(type);
+	}
+
+	/**
+	 * Returns the shared codec of a specified class and format.
+	 * 
+	 * @param type   The class to encode.
+	 * @param format The encoding.
+	 * @return The codec.
+	 * @since 0.0.1
+	 */
+	public static PersistanceCodec of(Class<?> type, Format format) {
+		return CODECS.get(type)[format.ordinal()];
+	}
+
+	/**
+	 * Returns the shared mapper of a specified format.
+	 * 
+	 * @param format The encoding.
+	 * @return The mapper; not to be reconfigured.
+	 * @since 0.0.3
+	 */
+	static ObjectMapper mapper(Format format) {
+		return format == Format.SMILE ? SMILE_MAPPER : JSON_MAPPER;
+	}
+
+	/**
+	 * Detects the format of encoded data from its first bytes: Smile data
+	 * starts with the ":)\n" header, anything else is read as JSON.
+	 * 
+	 * @param data The encoded data.
+	 * @return {@link Format#SMILE} or {@link Format#JSON}.
+	 * @since 0.0.1
+	 */
+	public static Format detect(byte[] data) {
+		return data.length >= 3 && data[0] == ':' && data[1] == ')'
+				&& data[2] == '\n' ? Format.SMILE : Format.JSON;
+	}
+
+	/**
+	 * Detects the format of a stream from its first bytes without consuming
+	 * them, like {@link #detect(byte[])}.
+	 * 
+	 * @param in A stream supporting {@link InputStream#mark(int)}.
+	 * @return {@link Format#SMILE} or {@link Format#JSON}.
+	 * @throws IOException Thrown if the stream could not be read.
+	 * @since 0.0.2
+	 */
+	public static Format detect(InputStream in) throws IOException {
+		byte[] header = new byte[3];
+		in.mark(header.length);
+		int n = in.readNBytes(header, 0, header.length);
+		in.reset();
+		return n == header.length ? detect(header) : Format.JSON;
+	}
+
+	/**
+	 * Encodes a specified object.
+	 * 
+	 * @param value The object to encode.
+	 * @return The encoded bytes.
+	 * @throws JsonProcessingException Thrown if object serialization failed.
+	 * @since 0.0.1
+	 */
+	public byte[] encode(Object value) throws JsonProcessingException {
+		long start = System.nanoTime();
+		byte[] data = writer.writeValueAsBytes(value);
+		stats.recordWrite(data.length, System.nanoTime() - start);
+		return data;
+	}
+
+	/**
+	 * Decodes an object from encoded bytes.
+	 * 
+	 * @param <T>  The class of the codec.
+	 * @param data The encoded bytes.
+	 * @return The decoded object.
+	 * @throws IOException Thrown if deserialization failed.
+	 * @since 0.0.1
+	 */
+	public <T> T decode(byte[] data) throws IOException {
+		long start = System.nanoTime();
+		T value = reader.readValue(data);
+		stats.recordRead(data.length, System.nanoTime() - start);
+		return value;
+	}
+
+	/**
+	 * Encodes a specified object onto a stream.
+	 * 
+	 * @param out   The stream to write to; left open.
+	 * @param value The object to encode.
+	 * @throws IOException Thrown if serialization or the stream failed.
+	 * @since 0.0.2
+	 */
+	public void write(OutputStream out, Object value) throws IOException {
+		long start = System.nanoTime();
+		CountingOutputStream counting = new CountingOutputStream(out);
+		writer.writeValue(counting, value);
+		stats.recordWrite(counting.count, System.nanoTime() - start);
+	}
+
+	/**
+	 * Decodes an object from a stream.
+	 * 
+	 * @param <T> The class of the codec.
+	 * @param in  The stream to read from; left open.
+	 * @return The decoded object.
+	 * @throws IOException Thrown if deserialization or the stream failed.
+	 * @since 0.0.2
+	 */
+	public <T> T read(InputStream in) throws IOException {
+		long start = System.nanoTime();
+		CountingInputStream counting = new CountingInputStream(in);
+		T value = reader.readValue(counting);
+		stats.recordRead(counting.count, System.nanoTime() - start);
+		return value;
+	}
+
+	/**
+	 * Starts writing a top-level array whose elements are encoded one at a
+	 * time by this codec. Closing the returned writer ends the array but
+	 * leaves the stream open.
+	 * 
+	 * @param out The stream to write to.
+	 * @return A writer accepting the elements of the array.
+	 * @throws IOException Thrown if the stream failed.
+	 * @since 0.0.2
+	 */
+	public SequenceWriter writeValues(OutputStream out) throws IOException {
+		return writer.writeValuesAsArray(out);
+	}
+
+	/**
+	 * Reads the elements of a top-level array one at a time, so arrays much
+	 * larger than the heap can be consumed. The iterator must be closed,
+	 * which also closes the stream.
+	 * 
+	 * @param <T> The class of the codec, the type of the elements.
+	 * @param in  The stream to read from.
+	 * @return An iterator over the elements of the array.
+	 * @throws IOException Thrown if the stream failed.
+	 * @since 0.0.2
+	 */
+	public <T> MappingIterator<T> readValues(InputStream in) throws IOException {
+		return reader.readValues(in);
+	}
+
+	/**
+	 * Returns the class this codec encodes.
+	 * 
+	 * @return The class this codec encodes.
+	 * @since 0.0.1
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the encoding of this codec.
+	 * 
+	 * @return The encoding of this codec.
+	 * @since 0.0.1
+	 */
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the statistics of this codec.
+	 * 
+	 * @return The statistics of this codec.
+	 * @since 0.0.1
+	 */
+	public Stats getStats() {
+		return stats;
+	}
+}
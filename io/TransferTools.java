@@ -0,0 +1,432 @@
+/*  Licensing Copyright
+ * 
+ *  Byte-oriented file transfers delegated to the kernel.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class copying bytes between files and channels with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} and
+ * {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)},
+ * letting the kernel move the data without decoding it or copying it
+ * through the heap. Transfers proceed in chunks of
+ * {@value #CHUNK_SIZE} bytes, reporting progress after each.
+ * <p>
+ * Multi-file jobs accept an optional {@link ForkJoinPool}; when one is
+ * given the files are transferred concurrently and the progress listener
+ * may be invoked from several threads.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public final class TransferTools {
+	private TransferTools() {}
+
+	/**
+	 * The number of bytes transferred between progress reports:
+	 * {@value #CHUNK_SIZE}.
+	 */
+	public static final int CHUNK_SIZE = 8 << 20;
+
+	/**
+	 * Receives the progress of a transfer.
+	 * 
+	 * @since 0.0.1
+	 */
+	@FunctionalInterface
+	public interface ProgressListener {
+		/**
+		 * Receives the progress of a transfer.
+		 * 
+		 * @param transferred The number of bytes transferred so far.
+		 * @param total       The total number of bytes to transfer.
+		 * @since 0.0.1
+		 */
+		void onProgress(long transferred, long total);
+	}
+
+	/**
+	 * Aggregates the progress of the transfers of a single job.
+	 */
+	private static final class Progress {
+		final AtomicLong transferred = new AtomicLong();
+		final long total;
+		final ProgressListener listener;
+
+		Progress(long total, ProgressListener listener) {
+			this.total = total;
+			this.listener = listener;
+		}
+
+		void add(long bytes) {
+			long sum = transferred.addAndGet(bytes);
+			if(listener != null)listener.onProgress(sum, total);
+		}
+	}
+
+	/**
+	 * Copies a specified file, replacing the target if it exists.
+	 * 
+	 * @param source   The file to copy.
+	 * @param target   The file to write.
+	 * @param listener Receives the progress; may be null.
+	 * @return The number of bytes copied.
+	 * @throws IOException Thrown if either file could not be accessed.
+	 * @since 0.0.1
+	 */
+	public static long copy(File source, File target, ProgressListener listener)
+			throws IOException {
+		FileTools.createParentDirectories(target);
+		try(FileChannel in = FileChannel.open(source.toPath(),
+				StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target.toPath(),
+						StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING)){
+			long size = in.size();
+			transfer(in, 0, size, out, 0, new Progress(size, listener));
+			return size;
+		}
+	}
+
+	/**
+	 * Copies several files concurrently, replacing the targets which exist.
+	 * 
+	 * @param jobs     The files to copy mapped to the files to write.
+	 * @param listener Receives the combined progress; may be null.
+	 * @param pool     The pool copying the files; null to copy them one by
+	 *                 one on the calling thread.
+	 * @return The number of bytes copied.
+	 * @throws IOException Thrown if any file could not be accessed.
+	 * @since 0.0.1
+	 */
+	public static long copyAll(Map<File, File> jobs, ProgressListener listener,
+			ForkJoinPool pool) throws IOException {
+		long total = 0;
+		for(File source : jobs.keySet())total += source.length();
+		Progress progress = new Progress(total, listener);
+
+		List<Callable<Void>> tasks = new ArrayList<>(jobs.size());
+		for(Map.Entry<File, File> job : jobs.entrySet()) {
+			tasks.add(() -> {
+				File target = job.getValue();
+				FileTools.createParentDirectories(target);
+				try(FileChannel in = FileChannel.open(job.getKey().toPath(),
+						StandardOpenOption.READ);
+						FileChannel out = FileChannel.open(target.toPath(),
+								StandardOpenOption.WRITE,
+								StandardOpenOption.CREATE,
+								StandardOpenOption.TRUNCATE_EXISTING)){
+					transfer(in, 0, in.size(), out, 0, progress);
+				}
+				return null;
+			});
+		}
+		run(tasks, pool);
+		return progress.transferred.get();
+	}
+
+	/**
+	 * Copies a range of a specified file into another file at a specified
+	 * position, leaving the rest of the target untouched.
+	 * 
+	 * @param source         The file to copy from.
+	 * @param position       The position of the first byte to copy.
+	 * @param count          The number of bytes to copy.
+	 * @param target         The file to write, created if missing.
+	 * @param targetPosition The position in the target to write at; at most
+	 *                       the current size of the target.
+	 * @param listener       Receives the progress; may be null.
+	 * @return The number of bytes copied.
+	 * @throws EOFException Thrown if the source ends before the range.
+	 * @throws IOException  Thrown if either file could not be accessed.
+	 * @since 0.0.1
+	 */
+	public static long copyRange(File source, long position, long count,
+			File target, long targetPosition, ProgressListener listener)
+			throws IOException {
+		checkRange(position, count);
+		FileTools.createParentDirectories(target);
+		try(FileChannel in = FileChannel.open(source.toPath(),
+				StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target.toPath(),
+						StandardOpenOption.WRITE, StandardOpenOption.CREATE)){
+			if(targetPosition > out.size())throw new IllegalArgumentException(
+					"targetPosition cannot be past the end of the target.");
+			transfer(in, position, count, out, targetPosition,
+					new Progress(count, listener));
+			return count;
+		}
+	}
+
+	/**
+	 * Concatenates several files into a target file, replacing it if it
+	 * exists. The offset of each source in the target is computed up front,
+	 * so the sources may be copied concurrently.
+	 * 
+	 * @param sources  The files to concatenate in order.
+	 * @param target   The file to write.
+	 * @param listener Receives the combined progress; may be null.
+	 * @param pool     The pool copying the sources; null to copy them one by
+	 *                 one on the calling thread.
+	 * @return The number of bytes written.
+	 * @throws IOException Thrown if any file could not be accessed.
+	 * @since 0.0.1
+	 */
+	public static long concat(List<File> sources, File target,
+			ProgressListener listener, ForkJoinPool pool) throws IOException {
+		long[] offsets = new long[sources.size() + 1];
+		for(int i = 0; i < sources.size(); i++)
+			offsets[i + 1] = offsets[i] + sources.get(i).length();
+		long total = offsets[sources.size()];
+		Progress progress = new Progress(total, listener);
+
+		FileTools.createParentDirectories(target);
+		try(FileChannel out = FileChannel.open(target.toPath(),
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)){
+			// transferFrom does nothing past the end of the file.
+			if(total > 0)out.write(ByteBuffer.allocate(1), total - 1);
+
+			List<Callable<Void>> tasks = new ArrayList<>(sources.size());
+			for(int i = 0; i < sources.size(); i++) {
+				File source = sources.get(i);
+				long offset = offsets[i], length = offsets[i + 1] - offset;
+				tasks.add(() -> {
+					try(FileChannel in = FileChannel.open(source.toPath(),
+							StandardOpenOption.READ)){
+						transfer(in, 0, length, out, offset, progress);
+					}
+					return null;
+				});
+			}
+			run(tasks, pool);
+		}
+		return total;
+	}
+
+	/**
+	 * Writes a specified file to a channel such as a socket.
+	 * 
+	 * @param source   The file to write.
+	 * @param target   The blocking channel to write to.
+	 * @param listener Receives the progress; may be null.
+	 * @return The number of bytes written.
+	 * @throws IOException Thrown if the file could not be read or the
+	 *                     channel written.
+	 * @since 0.0.1
+	 */
+	public static long transferTo(File source, WritableByteChannel target,
+			ProgressListener listener) throws IOException {
+		try(FileChannel in = FileChannel.open(source.toPath(),
+				StandardOpenOption.READ)){
+			long size = in.size();
+			transfer(in, 0, size, target, new Progress(size, listener));
+			return size;
+		}
+	}
+
+	/**
+	 * Writes a range of a specified file to a channel such as a socket.
+	 * 
+	 * @param source   The file to write.
+	 * @param position The position of the first byte to write.
+	 * @param count    The number of bytes to write.
+	 * @param target   The blocking channel to write to.
+	 * @param listener Receives the progress; may be null.
+	 * @return The number of bytes written.
+	 * @throws EOFException Thrown if the source ends before the range.
+	 * @throws IOException  Thrown if the file could not be read or the
+	 *                      channel written.
+	 * @since 0.0.1
+	 */
+	public static long transferTo(File source, long position, long count,
+			WritableByteChannel target, ProgressListener listener)
+			throws IOException {
+		checkRange(position, count);
+		try(FileChannel in = FileChannel.open(source.toPath(),
+				StandardOpenOption.READ)){
+			transfer(in, position, count, target, new Progress(count, listener));
+			return count;
+		}
+	}
+
+	/**
+	 * Private helper method copying a range of a file into another file with
+	 * positional writes, which are safe on a channel shared by several
+	 * threads.
+	 * 
+	 * @param in             The source channel, owned by the caller.
+	 * @param position       The position of the first byte to copy.
+	 * @param count          The number of bytes to copy.
+	 * @param out            The target channel.
+	 * @param targetPosition The position in the target to write at.
+	 * @param progress       The progress of the job.
+	 * @throws IOException Thrown if either file could not be accessed.
+	 * @since 0.0.1
+	 */
+	private static void transfer(FileChannel in, long position, long count,
+			FileChannel out, long targetPosition, Progress progress)
+			throws IOException {
+		in.position(position);
+		for(long done = 0; done < count;) {
+			long n = out.transferFrom(in, targetPosition + done,
+					Math.min(CHUNK_SIZE, count - done));
+			if(n == 0)throw new EOFException("Source ended after "
+					+ (position + done) + " bytes.");
+			done += n;
+			progress.add(n);
+		}
+	}
+
+	/**
+	 * Private helper method writing a range of a file to a channel.
+	 * 
+	 * @param in       The source channel.
+	 * @param position The position of the first byte to write.
+	 * @param count    The number of bytes to write.
+	 * @param out      The blocking channel to write to.
+	 * @param progress The progress of the job.
+	 * @throws IOException Thrown if the file could not be read or the
+	 *                     channel written.
+	 * @since 0.0.1
+	 */
+	private static void transfer(FileChannel in, long position, long count,
+			WritableByteChannel out, Progress progress) throws IOException {
+		for(long done = 0; done < count;) {
+			long n = in.transferTo(position + done,
+					Math.min(CHUNK_SIZE, count - done), out);
+			if(n == 0 && position + done >= in.size())
+				throw new EOFException("Source ended after "
+						+ (position + done) + " bytes.");
+			done += n;
+			if(n > 0)progress.add(n);
+		}
+	}
+
+	/**
+	 * Private helper method validating a range.
+	 * 
+	 * @param position The position of the range.
+	 * @param count    The length of the range.
+	 * @throws IllegalArgumentException Thrown when either is negative.
+	 * @since 0.0.1
+	 */
+	private static void checkRange(long position, long count) {
+		if(position < 0 || count < 0)throw new IllegalArgumentException(
+				"position and count cannot be negative.");
+	}
+
+	/**
+	 * Private helper method running tasks on a pool, or on the calling
+	 * thread when the pool is null, and rethrowing the first failure. On a
+	 * pool, a failure or an interrupt keeps the tasks not started yet from
+	 * running, and every task is waited for before returning, so no task
+	 * still writes once this method has thrown; later failures are
+	 * suppressed by the first.
+	 * 
+	 * @param tasks The tasks to run.
+	 * @param pool  The pool running the tasks; may be null.
+	 * @throws IOException Thrown if a task failed.
+	 * @since 0.0.1
+	 */
+	private static void run(List<Callable<Void>> tasks, ForkJoinPool pool)
+			throws IOException {
+		if(pool == null) {
+			for(Callable<Void> task : tasks) {
+				try {
+					task.call();
+				}catch(IOException | RuntimeException e) {
+					throw e;
+				}catch(Exception e) {
+					throw new IOException(e);
+				}
+			}
+			return;
+		}
+
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Throwable[] failures = new Throwable[tasks.size()];
+		List<ForkJoinTask<?>> submitted = new ArrayList<>(tasks.size());
+		for(int i = 0; i < tasks.size(); i++) {
+			Callable<Void> task = tasks.get(i);
+			int index = i;
+			submitted.add(pool.submit(() -> {
+				if(cancelled.get())return;
+				try {
+					task.call();
+				}catch(Exception | Error e) {
+					failures[index] = e;
+					cancelled.set(true);
+				}
+			}));
+		}
+
+		boolean interrupted = false;
+		for(ForkJoinTask<?> task : submitted) {
+			for(;;) {
+				try {
+					task.get();
+					break;
+				}catch(InterruptedException e) {
+					interrupted = true;
+					cancelled.set(true);
+				}catch(ExecutionException e) {
+					break;
+				}
+			}
+		}
+
+		Throwable failure = null;
+		for(Throwable e : failures) {
+			if(e == null)continue;
+			if(failure == null) {
+				failure = e;
+			}else {
+				failure.addSuppressed(e);
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException e = new InterruptedIOException();
+			if(failure != null)e.addSuppressed(failure);
+			throw e;
+		}
+		if(failure instanceof IOException)throw (IOException)failure;
+		if(failure instanceof RuntimeException)throw (RuntimeException)failure;
+		if(failure instanceof Error)throw (Error)failure;
+		if(failure != null)throw new IOException(failure);
+	}
+}
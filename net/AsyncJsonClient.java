@@ -0,0 +1,502 @@
+/*  Licensing Copyright
+ * 
+ *  Pooled asynchronous HTTP client for JSON resources.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.net;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Asynchronous HTTP client for JSON resources, backed by a single
+ * {@link HttpClient} which pools connections and negotiates HTTP/2 where
+ * the server supports it. Requests fail with a {@link HttpStatusException}
+ * on a non-2xx status and time out after a configurable duration, which
+ * bounds the whole exchange including reading the body. Instances
+ * are thread-safe and meant to be shared; {@link #shared()} returns the one
+ * used by {@link NetTools}.
+ * <p>
+ * Responses are requested with gzip or deflate compression and parsed
+ * straight from the decompressed body stream with a {@link JSONTokener},
+ * without first collecting the body into a String. Large top-level arrays
+ * can be consumed element by element with
+ * {@link #forEachArrayElement(String, Consumer)}. Bodies are read on the
+ * executor of the underlying client, or on a shared daemon pool if it has
+ * none.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.5
+ */
+public class AsyncJsonClient {
+	/**
+	 * The default timeout for establishing a connection: 10 seconds.
+	 */
+	public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+	/**
+	 * The default timeout for receiving and reading a response: 30 seconds.
+	 */
+	public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	/**
+	 * The characters a URI may contain unescaped, {@code %} included.
+	 */
+	private static final String URI_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+			+ "abcdefghijklmnopqrstuvwxyz0123456789-._~:/?#[]@!$&'()*+,;=%";
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private final HttpClient client;
+	private final Duration requestTimeout;
+	private final Executor bodyExecutor;
+
+	/**
+	 * Holds the client shared by {@link NetTools}; initialized on first use.
+	 */
+	private static final class Shared {
+		static final AsyncJsonClient INSTANCE = new AsyncJsonClient();
+	}
+
+	/**
+	 * Holds the pool reading bodies for clients without an executor;
+	 * initialized on first use.
+	 */
+	private static final class BodyReaders {
+		static final ExecutorService POOL = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "AsyncJsonClient-body");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Parses a response body from a tokener.
+	 * 
+	 * @param <T> The type of the parsed body.
+	 */
+	@FunctionalInterface
+	private interface BodyParser<T> {
+		T parse(JSONTokener tokener) throws IOException;
+	}
+
+	/**
+	 * Signals a response with a non-2xx status.
+	 * 
+	 * @since 0.0.1
+	 */
+	public static class HttpStatusException extends IOException {
+		private static final long serialVersionUID = 1L;
+		private final int statusCode;
+
+		/**
+		 * Constructs an exception for a specified status.
+		 * 
+		 * @param uri        The requested URI.
+		 * @param statusCode The status of the response.
+		 * @since 0.0.1
+		 */
+		public HttpStatusException(URI uri, int statusCode) {
+			super("GET " + uri + " returned HTTP " + statusCode + ".");
+			this.statusCode = statusCode;
+		}
+
+		/**
+		 * Returns the status of the response.
+		 * 
+		 * @return The status of the response.
+		 * @since 0.0.1
+		 */
+		public int getStatusCode() {
+			return statusCode;
+		}
+	}
+
+	/**
+	 * Constructs a client with the default timeouts.
+	 * 
+	 * @since 0.0.1
+	 */
+	public AsyncJsonClient() {
+		this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * Constructs a client with specified timeouts.
+	 * 
+	 * @param connectTimeout The timeout for establishing a connection.
+	 * @param requestTimeout The timeout for receiving and reading a
+	 *                       response.
+	 * @since 0.0.1
+	 */
+	public AsyncJsonClient(Duration connectTimeout, Duration requestTimeout) {
+		this(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(connectTimeout)
+				.build(), requestTimeout);
+	}
+
+	/**
+	 * Constructs a client over a specified {@link HttpClient}, for instance
+	 * one with a custom executor, proxy or SSL context.
+	 * 
+	 * @param client         The underlying client.
+	 * @param requestTimeout The timeout for receiving and reading a
+	 *                       response.
+	 * @since 0.0.1
+	 */
+	public AsyncJsonClient(HttpClient client, Duration requestTimeout) {
+		this.client = client;
+		this.requestTimeout = requestTimeout;
+		this.bodyExecutor = client.executor().orElse(null);
+	}
+
+	/**
+	 * Returns the client shared by {@link NetTools}.
+	 * 
+	 * @return The shared client.
+	 * @since 0.0.1
+	 */
+	public static AsyncJsonClient shared() {
+		return Shared.INSTANCE;
+	}
+
+	/**
+	 * Sends a GET request and parses the response as a
+	 * {@link org.json.JSONObject}.
+	 * 
+	 * @param url The URL to send a GET request.
+	 * @return A future of the parsed {@link org.json.JSONObject}, completed
+	 * exceptionally if the request or parsing failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<JSONObject> getJSONObject(String url) {
+		return get(url, JSONObject::new);
+	}
+
+	/**
+	 * Sends a GET request and parses the response as a
+	 * {@link org.json.JSONArray}.
+	 * 
+	 * @param url The URL to send a GET request.
+	 * @return A future of the parsed {@link org.json.JSONArray}, completed
+	 * exceptionally if the request or parsing failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<JSONArray> getJSONArray(String url) {
+		return get(url, JSONArray::new);
+	}
+
+	/**
+	 * Sends a GET request for a top-level JSON array and hands each element
+	 * to a handler as it is parsed, so the whole array is never held in
+	 * memory. Elements are {@link JSONObject}, {@link JSONArray}, String,
+	 * Number, Boolean or {@link JSONObject#NULL}; the handler is invoked
+	 * sequentially from a single thread.
+	 * 
+	 * @param url     The URL to send a GET request.
+	 * @param handler Receives each element in order.
+	 * @return A future of the number of elements, completed exceptionally if
+	 * the request, parsing or the handler failed.
+	 * @since 0.0.2
+	 */
+	public CompletableFuture<Long> forEachArrayElement(String url,
+			Consumer<Object> handler) {
+		return get(url, tokener -> forEachArrayElement(tokener, handler));
+	}
+
+	/**
+	 * Reads a top-level JSON array from a tokener element by element.
+	 * 
+	 * @param tokener The tokener positioned before the array.
+	 * @param handler Receives each element in order.
+	 * @return The number of elements.
+	 * @throws JSONException Thrown if the input is not a JSON array.
+	 * @since 0.0.2
+	 */
+	static long forEachArrayElement(JSONTokener tokener,
+			Consumer<Object> handler) {
+		if(tokener.nextClean() != '[')
+			throw tokener.syntaxError("A JSONArray text must start with '['");
+		long count = 0;
+		if(tokener.nextClean() == ']')return count;
+		tokener.back();
+		for(;;) {
+			handler.accept(tokener.nextValue());
+			count++;
+			switch(tokener.nextClean()) {
+			case ',':
+				continue;
+			case ']':
+				return count;
+			default:
+				throw tokener.syntaxError("Expected a ',' or ']'");
+			}
+		}
+	}
+
+	/**
+	 * Private helper method sending a GET request and parsing the body of a
+	 * successful response as it streams in.
+	 * 
+	 * @param <T>    The type of the parsed body.
+	 * @param url    The URL to send a GET request.
+	 * @param parser Parses the body.
+	 * @return A future of the parsed body.
+	 * @since 0.0.2
+	 */
+	private <T> CompletableFuture<T> get(String url, BodyParser<T> parser) {
+		HttpRequest request;
+		try {
+			request = newRequest(url).build();
+		}catch(IllegalArgumentException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return send(request, response -> {
+			try(Reader reader = openBody(response, response.body())){
+				return parser.parse(new JSONTokener(reader));
+			}catch(IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	/**
+	 * Sends a request and handles the response, whose body is an unread
+	 * stream, on the body executor. The request timeout of this client
+	 * covers the whole exchange rather than only the wait for the headers
+	 * like {@link HttpRequest#timeout()}: once it elapses the future fails
+	 * with a {@link TimeoutException} and the body is closed, releasing a
+	 * handler blocked on a stalled body.
+	 * 
+	 * @param <T>     The type of the result.
+	 * @param request The request to send.
+	 * @param handler Handles the response and must close its body.
+	 * @return A future of the result of the handler.
+	 * @since 0.0.3
+	 */
+	<T> CompletableFuture<T> send(HttpRequest request,
+			Function<HttpResponse<InputStream>, T> handler) {
+		CompletableFuture<HttpResponse<InputStream>> response =
+				client.sendAsync(request,
+						HttpResponse.BodyHandlers.ofInputStream());
+		CompletableFuture<T> result = response.thenApplyAsync(handler,
+				bodyExecutor != null ? bodyExecutor : BodyReaders.POOL);
+		result.orTimeout(requestTimeout.toNanos(), TimeUnit.NANOSECONDS)
+				.whenComplete((value, e) -> {
+					if(!(e instanceof TimeoutException))return;
+					response.cancel(true);
+					response.thenAccept(AsyncJsonClient::closeBody);
+				});
+		return result;
+	}
+
+	/**
+	 * Private helper method closing the body of a response, ignoring
+	 * failures.
+	 * 
+	 * @param response The response.
+	 * @since 0.0.4
+	 */
+	private static void closeBody(HttpResponse<InputStream> response) {
+		try {
+			response.body().close();
+		}catch(IOException e) {
+			// Nothing is left to release.
+		}
+	}
+
+	/**
+	 * Opens the decompressed, decoded body of a response, closing it and
+	 * failing if its status is not 2xx.
+	 * 
+	 * @param response The response.
+	 * @param body     The body of the response, possibly wrapped.
+	 * @return A reader of the body.
+	 * @throws IOException Thrown on a non-2xx status or if the body could
+	 * not be opened.
+	 * @since 0.0.3
+	 */
+	static Reader openBody(HttpResponse<?> response, InputStream body)
+			throws IOException {
+		try {
+			if(response.statusCode() / 100 != 2)throw new HttpStatusException(
+					response.request().uri(), response.statusCode());
+			return new InputStreamReader(decompress(body,
+					response.headers().firstValue("Content-Encoding")
+					.orElse("")), charset(response));
+		}catch(IOException | RuntimeException e) {
+			body.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Private helper method wrapping a body in the decoder of its content
+	 * encoding. Deflate bodies are accepted with or without the zlib
+	 * wrapper some servers omit.
+	 * 
+	 * @param body     The raw body.
+	 * @param encoding The Content-Encoding of the response.
+	 * @return The decompressed body.
+	 * @throws IOException Thrown if the body could not be read.
+	 * @since 0.0.2
+	 */
+	private static InputStream decompress(InputStream body, String encoding)
+			throws IOException {
+		switch(encoding.trim().toLowerCase(Locale.ROOT)) {
+		case "gzip":
+		case "x-gzip":
+			return new GZIPInputStream(body, 8192);
+		case "deflate":
+			BufferedInputStream in = new BufferedInputStream(body, 8192);
+			in.mark(2);
+			int cmf = in.read(), flg = in.read();
+			in.reset();
+			boolean zlib = (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+			return new InflaterInputStream(in, new Inflater(!zlib), 8192) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					}finally {
+						inf.end();
+					}
+				}
+			};
+		default:
+			return body;
+		}
+	}
+
+	/**
+	 * Private helper method returning the charset of a response from its
+	 * Content-Type, defaulting to UTF-8.
+	 * 
+	 * @param response The response.
+	 * @return The charset of the body.
+	 * @since 0.0.2
+	 */
+	private static Charset charset(HttpResponse<?> response) {
+		String type = response.headers().firstValue("Content-Type").orElse("");
+		for(String param : type.split(";")) {
+			String[] pair = param.trim().split("=", 2);
+			if(pair.length == 2 && pair[0].equalsIgnoreCase("charset")) {
+				try {
+					return Charset.forName(pair[1].replace("\"", "").trim());
+				}catch(IllegalArgumentException e) {
+					break;
+				}
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Returns a GET request builder for a specified URL with the timeout
+	 * and headers of this client.
+	 * 
+	 * @param url The URL to request.
+	 * @return A request builder.
+	 * @throws IllegalArgumentException Thrown if the URL is invalid.
+	 * @since 0.0.1
+	 */
+	HttpRequest.Builder newRequest(String url) {
+		return HttpRequest.newBuilder(toUri(url))
+				.timeout(requestTimeout)
+				.header("Accept", "application/json")
+				.header("Accept-Encoding", "gzip, deflate")
+				.GET();
+	}
+
+	/**
+	 * Parses a URL string as leniently as {@link java.net.URL} does: any
+	 * character a URI may not contain unescaped, such as a space or
+	 * {@code |}, is percent-encoded as UTF-8 instead of being rejected.
+	 * Existing escapes are kept as they are.
+	 * 
+	 * @param url The URL to parse.
+	 * @return The parsed URI.
+	 * @throws IllegalArgumentException Thrown if the URL is invalid.
+	 * @since 0.0.5
+	 */
+	static URI toUri(String url) {
+		StringBuilder encoded = null;
+		for(int i = 0; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if(c < 0x80 && URI_CHARS.indexOf(c) >= 0) {
+				if(encoded != null)encoded.append(c);
+				continue;
+			}
+			if(encoded == null)encoded = new StringBuilder(url.length() + 16)
+					.append(url, 0, i);
+			int end = Character.isHighSurrogate(c) && i + 1 < url.length() ? i + 2 : i + 1;
+			for(byte b : url.substring(i, end).getBytes(StandardCharsets.UTF_8))
+				encoded.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+			i = end - 1;
+		}
+		return URI.create(encoded == null ? url : encoded.toString());
+	}
+
+	/**
+	 * Returns the underlying {@link HttpClient}.
+	 * 
+	 * @return The underlying client.
+	 * @since 0.0.1
+	 */
+	public HttpClient getHttpClient() {
+		return client;
+	}
+
+	/**
+	 * Returns the timeout for receiving and reading a response.
+	 * 
+	 * @return The request timeout.
+	 * @since 0.0.1
+	 */
+	public Duration getRequestTimeout() {
+		return requestTimeout;
+	}
+}
@@ -0,0 +1,436 @@
+/*  Licensing Copyright
+ * 
+ *  Concurrent fetching of many JSON URLs with bounded concurrency.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.net;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Fetches batches of JSON URLs concurrently through an
+ * {@link AsyncJsonClient}, so a batch takes about as long as its slowest
+ * requests rather than the sum of all of them. At most a global number of
+ * requests, and a smaller number per host, are in flight at once across all
+ * batches of a fetcher; further URLs wait in per-host queues which are
+ * served in turn. No thread is blocked while waiting: each completion starts
+ * the next eligible requests.
+ * <p>
+ * Every URL yields a {@link FetchResult} holding either its value or the
+ * failure, including timeouts and non-2xx statuses. Each fetch, whatever
+ * function performs it, fails with a {@link TimeoutException} once the
+ * request timeout of the client has elapsed, so a stalled request releases
+ * its slots. Results are streamed to an optional callback as they complete
+ * and collected in input order.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.3
+ */
+public class BatchFetcher {
+	private final AsyncJsonClient client;
+	private final int maxConcurrency;
+	private final int maxPerHost;
+	private final LinkedHashMap<String, ArrayDeque<Task<?>>> pending =
+			new LinkedHashMap<>();
+	private final Map<String, Integer> hostInFlight = new HashMap<>();
+	private int inFlight;
+	private final AtomicInteger pumpRequests = new AtomicInteger();
+
+	/**
+	 * The outcome of fetching a single URL.
+	 * 
+	 * @param <T> The type of the fetched value.
+	 * @since 0.0.1
+	 */
+	public static final class FetchResult<T> {
+		private final String url;
+		private final T value;
+		private final Throwable error;
+		private final long durationNanos;
+
+		FetchResult(String url, T value, Throwable error, long durationNanos) {
+			this.url = url;
+			this.value = value;
+			this.error = error;
+			this.durationNanos = durationNanos;
+		}
+
+		/**
+		 * Returns the fetched URL.
+		 * 
+		 * @return The fetched URL.
+		 * @since 0.0.1
+		 */
+		public String getUrl() {
+			return url;
+		}
+
+		/**
+		 * Returns the fetched value.
+		 * 
+		 * @return The fetched value; null if the fetch failed.
+		 * @since 0.0.1
+		 */
+		public T getValue() {
+			return value;
+		}
+
+		/**
+		 * Returns the failure of the fetch, such as an
+		 * {@link AsyncJsonClient.HttpStatusException}, a
+		 * {@link TimeoutException} or a parse error.
+		 * 
+		 * @return The failure; null if the fetch succeeded.
+		 * @since 0.0.1
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * Returns whether the fetch succeeded.
+		 * 
+		 * @return True if the fetch succeeded.
+		 * @since 0.0.1
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+
+		/**
+		 * Returns the time from sending the request to its completion.
+		 * 
+		 * @return The duration of the fetch in nanoseconds.
+		 * @since 0.0.1
+		 */
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		@Override
+		public String toString() {
+			return url + (error == null ? " ok " : " failed: " + error + " ")
+					+ durationNanos / 1_000_000 + "ms";
+		}
+	}
+
+	/**
+	 * A queued URL of a batch.
+	 * 
+	 * @param <T> The type of the fetched value.
+	 */
+	private static final class Task<T> {
+		final Batch<T> batch;
+		final int index;
+		final String url, host;
+
+		Task(Batch<T> batch, int index, String url, String host) {
+			this.batch = batch;
+			this.index = index;
+			this.url = url;
+			this.host = host;
+		}
+	}
+
+	/**
+	 * The state of a batch.
+	 * 
+	 * @param <T> The type of the fetched values.
+	 */
+	private static final class Batch<T> {
+		final Function<String, CompletableFuture<T>> fetch;
+		final Consumer<? super FetchResult<T>> onResult;
+		final AtomicReferenceArray<FetchResult<T>> results;
+		final AtomicInteger remaining;
+		final CompletableFuture<List<FetchResult<T>>> done =
+				new CompletableFuture<>();
+
+		Batch(Function<String, CompletableFuture<T>> fetch,
+				Consumer<? super FetchResult<T>> onResult, int size) {
+			this.fetch = fetch;
+			this.onResult = onResult;
+			this.results = new AtomicReferenceArray<>(size);
+			this.remaining = new AtomicInteger(size);
+			if(size == 0)done.complete(List.of());
+		}
+
+		void complete(int index, FetchResult<T> result) {
+			results.set(index, result);
+			if(onResult != null) {
+				try {
+					onResult.accept(result);
+				}catch(RuntimeException ignored) {}
+			}
+			if(remaining.decrementAndGet() == 0) {
+				List<FetchResult<T>> list = new ArrayList<>(results.length());
+				for(int i = 0; i < results.length(); i++)list.add(results.get(i));
+				done.complete(list);
+			}
+		}
+	}
+
+	/**
+	 * Constructs a fetcher over the shared client.
+	 * 
+	 * @param maxConcurrency The maximum number of requests in flight.
+	 * @param maxPerHost     The maximum number of requests in flight to a
+	 *                       single host.
+	 * @since 0.0.1
+	 */
+	public BatchFetcher(int maxConcurrency, int maxPerHost) {
+		this(AsyncJsonClient.shared(), maxConcurrency, maxPerHost);
+	}
+
+	/**
+	 * Constructs a fetcher over a specified client.
+	 * 
+	 * @param client         The client sending the requests.
+	 * @param maxConcurrency The maximum number of requests in flight.
+	 * @param maxPerHost     The maximum number of requests in flight to a
+	 *                       single host.
+	 * @throws IllegalArgumentException Thrown when a limit is less than 1.
+	 * @since 0.0.1
+	 */
+	public BatchFetcher(AsyncJsonClient client, int maxConcurrency,
+			int maxPerHost) {
+		if(maxConcurrency < 1 || maxPerHost < 1)
+			throw new IllegalArgumentException(
+					"Concurrency limits cannot be less than 1.");
+		this.client = client;
+		this.maxConcurrency = maxConcurrency;
+		this.maxPerHost = maxPerHost;
+	}
+
+	/**
+	 * Fetches a batch of URLs as {@link org.json.JSONObject}s.
+	 * 
+	 * @param urls     The URLs to fetch.
+	 * @param onResult Receives each result as it completes, possibly from
+	 *                 several threads; may be null.
+	 * @return A future of the results in the order of the URLs, completed
+	 * once every URL has been fetched or has failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<List<FetchResult<JSONObject>>> fetchJSONObjects(
+			Collection<String> urls,
+			Consumer<? super FetchResult<JSONObject>> onResult) {
+		return fetch(urls, client::getJSONObject, onResult);
+	}
+
+	/**
+	 * Fetches a batch of URLs as {@link org.json.JSONArray}s.
+	 * 
+	 * @param urls     The URLs to fetch.
+	 * @param onResult Receives each result as it completes, possibly from
+	 *                 several threads; may be null.
+	 * @return A future of the results in the order of the URLs, completed
+	 * once every URL has been fetched or has failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<List<FetchResult<JSONArray>>> fetchJSONArrays(
+			Collection<String> urls,
+			Consumer<? super FetchResult<JSONArray>> onResult) {
+		return fetch(urls, client::getJSONArray, onResult);
+	}
+
+	/**
+	 * Fetches a batch of URLs with a specified asynchronous fetch, for
+	 * instance one going through a cache.
+	 * 
+	 * @param <T>      The type of the fetched values.
+	 * @param urls     The URLs to fetch.
+	 * @param fetch    Starts fetching a URL.
+	 * @param onResult Receives each result as it completes, possibly from
+	 *                 several threads; may be null.
+	 * @return A future of the results in the order of the URLs, completed
+	 * once every URL has been fetched or has failed.
+	 * @since 0.0.1
+	 */
+	public <T> CompletableFuture<List<FetchResult<T>>> fetch(
+			Collection<String> urls,
+			Function<String, CompletableFuture<T>> fetch,
+			Consumer<? super FetchResult<T>> onResult) {
+		Batch<T> batch = new Batch<>(fetch, onResult, urls.size());
+		List<Task<T>> tasks = new ArrayList<>(urls.size());
+		int index = 0;
+		for(String url : urls) {
+			String host;
+			try {
+				host = hostKey(AsyncJsonClient.toUri(url));
+			}catch(IllegalArgumentException e) {
+				host = null;
+			}
+			if(host == null) {
+				batch.complete(index++, new FetchResult<>(url, null,
+						new IllegalArgumentException("Invalid URL: " + url), 0));
+			}else {
+				tasks.add(new Task<>(batch, index++, url, host));
+			}
+		}
+
+		synchronized(this) {
+			for(Task<T> task : tasks)
+				pending.computeIfAbsent(task.host, h -> new ArrayDeque<>())
+						.add(task);
+		}
+		pump();
+		return batch.done;
+	}
+
+	/**
+	 * Private helper method returning the key a URI is limited under: its
+	 * host and port, the default port of its scheme if it has none, so
+	 * {@code https://h/} and {@code https://h:443/} share one limit.
+	 * 
+	 * @param uri The URI.
+	 * @return The host key; null if the URI has no host.
+	 * @since 0.0.2
+	 */
+	private static String hostKey(URI uri) {
+		String host = uri.getHost();
+		if(host == null)return null;
+		int port = uri.getPort();
+		if(port == -1)port = "https".equalsIgnoreCase(uri.getScheme()) ? 443
+				: "http".equalsIgnoreCase(uri.getScheme()) ? 80 : -1;
+		return host.toLowerCase(Locale.ROOT) + ":" + port;
+	}
+
+	/**
+	 * Returns the number of requests in flight.
+	 * 
+	 * @return The number of requests in flight.
+	 * @since 0.0.1
+	 */
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Returns the number of URLs waiting for a free slot.
+	 * 
+	 * @return The number of queued URLs.
+	 * @since 0.0.1
+	 */
+	public synchronized int getQueued() {
+		int queued = 0;
+		for(ArrayDeque<Task<?>> queue : pending.values())queued += queue.size();
+		return queued;
+	}
+
+	/**
+	 * Private helper method starting queued requests while slots are free.
+	 * Only one thread pumps at a time; requests made meanwhile, including
+	 * by requests completing synchronously, make it pump again instead of
+	 * recursing.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void pump() {
+		if(pumpRequests.getAndIncrement() != 0)return;
+		int missed = 1;
+		do {
+			startQueued();
+			missed = pumpRequests.addAndGet(-missed);
+		}while(missed != 0);
+	}
+
+	/**
+	 * Private helper method starting queued requests while slots are free,
+	 * serving the hosts in turn.
+	 * 
+	 * @since 0.0.1
+	 */
+	private void startQueued() {
+		List<Task<?>> started = new ArrayList<>();
+		synchronized(this) {
+			while(inFlight < maxConcurrency) {
+				Task<?> next = null;
+				Iterator<Map.Entry<String, ArrayDeque<Task<?>>>> hosts =
+						pending.entrySet().iterator();
+				while(hosts.hasNext()) {
+					Map.Entry<String, ArrayDeque<Task<?>>> host = hosts.next();
+					if(hostInFlight.getOrDefault(host.getKey(), 0) >= maxPerHost)
+						continue;
+					next = host.getValue().poll();
+					hosts.remove();
+					if(!host.getValue().isEmpty())
+						pending.put(host.getKey(), host.getValue());
+					break;
+				}
+				if(next == null)break;
+				inFlight++;
+				hostInFlight.merge(next.host, 1, Integer::sum);
+				started.add(next);
+			}
+		}
+		for(Task<?> task : started)start(task);
+	}
+
+	/**
+	 * Private helper method sending a request and releasing its slot on
+	 * completion or once the request timeout of the client has elapsed. The
+	 * timeout is applied to a copy, leaving a future the fetch may share with
+	 * other callers untouched.
+	 * 
+	 * @param <T>  The type of the fetched value.
+	 * @param task The queued URL.
+	 * @since 0.0.1
+	 */
+	private <T> void start(Task<T> task) {
+		long start = System.nanoTime();
+		CompletableFuture<T> future;
+		try {
+			future = task.batch.fetch.apply(task.url).copy().orTimeout(
+					client.getRequestTimeout().toNanos(), TimeUnit.NANOSECONDS);
+		}catch(RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		future.whenComplete((value, error) -> {
+			synchronized(this) {
+				inFlight--;
+				hostInFlight.merge(task.host, -1,
+						(a, b) -> a + b == 0 ? null : a + b);
+			}
+			if(error instanceof CompletionException && error.getCause() != null)
+				error = error.getCause();
+			task.batch.complete(task.index, new FetchResult<>(task.url,
+					error == null ? value : null, error,
+					System.nanoTime() - start));
+			pump();
+		});
+	}
+}
@@ -0,0 +1,431 @@
+/*  Licensing Copyright
+ * 
+ *  Revalidating cache of parsed JSON responses.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.net;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * In-memory cache of parsed JSON responses fetched through an
+ * {@link AsyncJsonClient}. Responses stay fresh for their Cache-Control
+ * max-age, or a default time to live, and are served without a request or
+ * a parse. Stale responses carrying an ETag or Last-Modified validator are
+ * revalidated with If-None-Match or If-Modified-Since, and a 304 reuses the
+ * parsed value. Responses marked no-store are not cached.
+ * <p>
+ * The cache is bounded by an estimate of the heap occupied by the parsed
+ * values, see {@link JsonValues#estimateSize(Object)}, and evicts the least
+ * recently used first. By default callers receive deep copies, so they may
+ * mutate what they get; a copy walks and allocates the whole tree, which
+ * costs a good part of a parse. Callers which never mutate results can
+ * construct the cache with {@link UnaryOperator#identity()} as copier and
+ * share the cached values instead. Hit-rate and bytes-saved metrics help
+ * size the cache.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public class JsonResponseCache {
+	private final AsyncJsonClient client;
+	private final long maxBytes;
+	private final long defaultTtlNanos;
+	private final UnaryOperator<Object> copier;
+	private final LinkedHashMap<String, Entry> entries =
+			new LinkedHashMap<>(16, 0.75f, true);
+	private long weight;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder bytesSaved = new LongAdder();
+
+	/**
+	 * A cached response.
+	 */
+	private static final class Entry {
+		final Object value;
+		final String etag, lastModified;
+		final long bytes, weight;
+		volatile long expiresAt;
+
+		Entry(Object value, String etag, String lastModified, long bytes,
+				long weight, long expiresAt) {
+			this.value = value;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.bytes = bytes;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * Counts the bytes read through it.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if(b >= 0)count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if(n > 0)count += n;
+			return n;
+		}
+	}
+
+	/**
+	 * Constructs a cache over the shared client handing out deep copies.
+	 * 
+	 * @param maxBytes   The maximum estimated heap size of the cached
+	 *                   values.
+	 * @param defaultTtl How long responses without a max-age stay fresh.
+	 * @since 0.0.1
+	 */
+	public JsonResponseCache(long maxBytes, Duration defaultTtl) {
+		this(AsyncJsonClient.shared(), maxBytes, defaultTtl);
+	}
+
+	/**
+	 * Constructs a cache over a specified client handing out deep copies.
+	 * 
+	 * @param client     The client sending the requests.
+	 * @param maxBytes   The maximum estimated heap size of the cached
+	 *                   values.
+	 * @param defaultTtl How long responses without a max-age stay fresh.
+	 * @since 0.0.1
+	 */
+	public JsonResponseCache(AsyncJsonClient client, long maxBytes,
+			Duration defaultTtl) {
+		this(client, maxBytes, defaultTtl, JsonValues::deepCopy);
+	}
+
+	/**
+	 * Constructs a cache over a specified client.
+	 * 
+	 * @param client     The client sending the requests.
+	 * @param maxBytes   The maximum estimated heap size of the cached
+	 *                   values.
+	 * @param defaultTtl How long responses without a max-age stay fresh.
+	 * @param copier     Copies a cached value for each caller;
+	 *                   {@link UnaryOperator#identity()} shares the cached
+	 *                   values, which callers must then never mutate.
+	 * @since 0.0.2
+	 */
+	public JsonResponseCache(AsyncJsonClient client, long maxBytes,
+			Duration defaultTtl, UnaryOperator<Object> copier) {
+		this.client = client;
+		this.maxBytes = maxBytes;
+		this.defaultTtlNanos = defaultTtl.toNanos();
+		this.copier = copier;
+	}
+
+	/**
+	 * Returns a {@link org.json.JSONObject} from the cache, revalidating or
+	 * fetching it when needed.
+	 * 
+	 * @param url The URL to send a GET request.
+	 * @return A future of the {@link org.json.JSONObject} as copied by the
+	 * copier,
+	 * completed exceptionally if the request or parsing failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<JSONObject> getJSONObject(String url) {
+		return get(url, JSONObject.class, JSONObject::new);
+	}
+
+	/**
+	 * Returns a {@link org.json.JSONArray} from the cache, revalidating or
+	 * fetching it when needed.
+	 * 
+	 * @param url The URL to send a GET request.
+	 * @return A future of the {@link org.json.JSONArray} as copied by the
+	 * copier,
+	 * completed exceptionally if the request or parsing failed.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<JSONArray> getJSONArray(String url) {
+		return get(url, JSONArray.class, JSONArray::new);
+	}
+
+	/**
+	 * Private helper method serving a fresh entry or sending a conditional
+	 * request.
+	 * 
+	 * @param <T>    The type of the parsed body.
+	 * @param url    The URL to send a GET request.
+	 * @param type   The type of the parsed body.
+	 * @param parser Parses the body.
+	 * @return A future of a copy of the parsed body.
+	 * @since 0.0.1
+	 */
+	private <T> CompletableFuture<T> get(String url, Class<T> type,
+			Function<JSONTokener, T> parser) {
+		Entry entry;
+		synchronized(this) {
+			entry = entries.get(url);
+		}
+		if(entry != null && !type.isInstance(entry.value))entry = null;
+		if(entry != null && System.nanoTime() - entry.expiresAt < 0) {
+			hits.increment();
+			bytesSaved.add(entry.bytes);
+			return CompletableFuture.completedFuture(
+					type.cast(copier.apply(entry.value)));
+		}
+
+		HttpRequest request;
+		try {
+			HttpRequest.Builder builder = client.newRequest(url);
+			if(entry != null && entry.etag != null)
+				builder.header("If-None-Match", entry.etag);
+			if(entry != null && entry.lastModified != null)
+				builder.header("If-Modified-Since", entry.lastModified);
+			request = builder.build();
+		}catch(IllegalArgumentException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		Entry stale = entry;
+		return client.send(request, response -> {
+			try {
+				return type.cast(handle(url, stale, response, parser));
+			}catch(IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	/**
+	 * Private helper method handling the response to a request, reusing the
+	 * stale entry on a 304 and caching a new body otherwise. The stale entry
+	 * is only put back if it was evicted meanwhile, never over an entry a
+	 * concurrent request cached.
+	 * 
+	 * @param url      The requested URL.
+	 * @param stale    The revalidated entry; null if none.
+	 * @param response The response.
+	 * @param parser   Parses the body.
+	 * @return The parsed body as copied by the copier.
+	 * @throws IOException Thrown on a non-2xx status or if the body could
+	 * not be read.
+	 * @since 0.0.1
+	 */
+	private Object handle(String url, Entry stale,
+			HttpResponse<InputStream> response,
+			Function<JSONTokener, ?> parser) throws IOException {
+		long now = System.nanoTime();
+		HttpHeaders headers = response.headers();
+		if(response.statusCode() == 304 && stale != null) {
+			response.body().close();
+			revalidations.increment();
+			bytesSaved.add(stale.bytes);
+			stale.expiresAt = now + ttlNanos(headers);
+			synchronized(this) {
+				if(!entries.containsKey(url))put(url, stale);
+			}
+			return copier.apply(stale.value);
+		}
+
+		CountingInputStream body = new CountingInputStream(response.body());
+		Object value;
+		try(Reader reader = AsyncJsonClient.openBody(response, body)){
+			value = parser.apply(new JSONTokener(reader));
+		}
+		misses.increment();
+
+		String cacheControl = headers.firstValue("Cache-Control").orElse("")
+				.toLowerCase(Locale.ROOT);
+		String etag = headers.firstValue("ETag").orElse(null);
+		String lastModified = headers.firstValue("Last-Modified").orElse(null);
+		long ttl = ttlNanos(headers);
+		if(cacheControl.contains("no-store")
+				|| (ttl <= 0 && etag == null && lastModified == null)) {
+			invalidate(url);
+			return value;
+		}
+		long weight = JsonValues.estimateSize(value);
+		if(weight > maxBytes) {
+			invalidate(url);
+			return value;
+		}
+		put(url, new Entry(value, etag, lastModified, body.count, weight,
+				now + ttl));
+		return copier.apply(value);
+	}
+
+	/**
+	 * Private helper method computing how long a response stays fresh from
+	 * its Cache-Control max-age and Age headers.
+	 * 
+	 * @param headers The headers of the response.
+	 * @return The freshness lifetime in nanoseconds; 0 if it must be
+	 * revalidated before reuse.
+	 * @since 0.0.1
+	 */
+	private long ttlNanos(HttpHeaders headers) {
+		String cacheControl = headers.firstValue("Cache-Control").orElse("")
+				.toLowerCase(Locale.ROOT);
+		if(cacheControl.contains("no-cache"))return 0;
+		for(String directive : cacheControl.split(",")) {
+			directive = directive.trim();
+			if(directive.startsWith("max-age=")) {
+				try {
+					long maxAge = Long.parseLong(directive.substring(8)
+							.replace("\"", "").trim());
+					long age = headers.firstValueAsLong("Age").orElse(0);
+					return Duration.ofSeconds(Math.max(0, maxAge - age))
+							.toNanos();
+				}catch(NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return defaultTtlNanos;
+	}
+
+	/**
+	 * Private helper method caching an entry and evicting the least recently
+	 * used entries beyond the size bound.
+	 * 
+	 * @param url   The requested URL.
+	 * @param entry The entry to cache.
+	 * @since 0.0.1
+	 */
+	private synchronized void put(String url, Entry entry) {
+		Entry previous = entries.put(url, entry);
+		if(previous != null)weight -= previous.weight;
+		weight += entry.weight;
+		Iterator<Entry> lru = entries.values().iterator();
+		while(weight > maxBytes && lru.hasNext()) {
+			weight -= lru.next().weight;
+			lru.remove();
+		}
+	}
+
+	/**
+	 * Removes the cached response of a specified URL.
+	 * 
+	 * @param url The URL.
+	 * @since 0.0.1
+	 */
+	public synchronized void invalidate(String url) {
+		Entry previous = entries.remove(url);
+		if(previous != null)weight -= previous.weight;
+	}
+
+	/**
+	 * Removes every cached response.
+	 * 
+	 * @since 0.0.1
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+		weight = 0;
+	}
+
+	/**
+	 * Returns the number of requests served from a fresh entry.
+	 * 
+	 * @return The number of fresh hits.
+	 * @since 0.0.1
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of requests answered with 304 Not Modified.
+	 * 
+	 * @return The number of successful revalidations.
+	 * @since 0.0.1
+	 */
+	public long getRevalidationCount() {
+		return revalidations.sum();
+	}
+
+	/**
+	 * Returns the number of requests which downloaded and parsed a body.
+	 * 
+	 * @return The number of misses.
+	 * @since 0.0.1
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the fraction of requests which did not download a body.
+	 * 
+	 * @return The hit rate, fresh hits and revalidations included; 0 if
+	 * there were no requests.
+	 * @since 0.0.1
+	 */
+	public double getHitRate() {
+		long reused = hits.sum() + revalidations.sum();
+		long total = reused + misses.sum();
+		return total == 0 ? 0 : (double)reused / total;
+	}
+
+	/**
+	 * Returns the number of body bytes not downloaded thanks to the cache.
+	 * 
+	 * @return The number of bytes saved.
+	 * @since 0.0.1
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+
+	/**
+	 * Returns the estimated heap size of the cached values.
+	 * 
+	 * @return The estimated number of bytes cached.
+	 * @since 0.0.1
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+}
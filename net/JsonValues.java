@@ -0,0 +1,108 @@
+/*  Licensing Copyright
+ * 
+ *  Helpers for org.json values.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.net;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Utility class copying parsed org.json values, which are mutable, so one
+ * parsed response can be handed to several callers, and estimating how much
+ * heap they occupy.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public final class JsonValues {
+	private JsonValues() {}
+
+	/** Estimated bytes of an empty JSONObject and its HashMap. */
+	private static final int OBJECT_BYTES = 80;
+	/** Estimated bytes per JSONObject member: a node and table slots. */
+	private static final int MEMBER_BYTES = 48;
+	/** Estimated bytes of an empty JSONArray and its ArrayList. */
+	private static final int ARRAY_BYTES = 56;
+	/** Estimated bytes per JSONArray element slot. */
+	private static final int ELEMENT_BYTES = 8;
+	/** Estimated bytes of a String besides its characters. */
+	private static final int STRING_BYTES = 40;
+	/** Estimated bytes of a boxed Number. */
+	private static final int NUMBER_BYTES = 24;
+
+	/**
+	 * Returns a deep copy of a parsed value: {@link JSONObject}s and
+	 * {@link JSONArray}s are copied recursively, while immutable leaves such
+	 * as Strings, Numbers, Booleans and {@link JSONObject#NULL} are shared.
+	 * 
+	 * @param <T>   The type of the value.
+	 * @param value The value to copy.
+	 * @return The copy.
+	 * @since 0.0.1
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T deepCopy(T value) {
+		if(value instanceof JSONObject) {
+			JSONObject source = (JSONObject)value;
+			JSONObject copy = new JSONObject();
+			for(String key : source.keySet())
+				copy.put(key, deepCopy(source.opt(key)));
+			return (T)copy;
+		}
+		if(value instanceof JSONArray) {
+			JSONArray source = (JSONArray)value;
+			JSONArray copy = new JSONArray(source.length());
+			for(int i = 0; i < source.length(); i++)
+				copy.put(deepCopy(source.opt(i)));
+			return (T)copy;
+		}
+		return value;
+	}
+
+	/**
+	 * Returns a rough estimate of the heap occupied by a parsed value,
+	 * assuming compact Latin-1 strings and a 64-bit JVM with compressed
+	 * references. Booleans and {@link JSONObject#NULL} are shared and cost
+	 * nothing.
+	 * 
+	 * @param value The value to measure.
+	 * @return The estimated size in bytes.
+	 * @since 0.0.2
+	 */
+	public static long estimateSize(Object value) {
+		if(value instanceof JSONObject) {
+			JSONObject source = (JSONObject)value;
+			long size = OBJECT_BYTES;
+			for(String key : source.keySet())
+				size += MEMBER_BYTES + estimateSize(key)
+						+ estimateSize(source.opt(key));
+			return size;
+		}
+		if(value instanceof JSONArray) {
+			JSONArray source = (JSONArray)value;
+			long size = ARRAY_BYTES;
+			for(int i = 0; i < source.length(); i++)
+				size += ELEMENT_BYTES + estimateSize(source.opt(i));
+			return size;
+		}
+		if(value instanceof String)return STRING_BYTES + ((String)value).length();
+		if(value instanceof Number)return NUMBER_BYTES;
+		return 0;
+	}
+}
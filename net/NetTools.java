@@ -18,24 +18,71 @@
  */
 package com.dz_fs_dev.common.net;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 /**
  * Utility class containing common network IO and manipulation tools.
+ * Requests are sent through the pooled {@link AsyncJsonClient#shared()}
+ * client, and concurrent reads of the same URL share one request through a
+ * {@link SingleFlight}; the caller which sent the request receives the
+ * parsed result and every caller which joined it receives its own copy.
+ * Reads can opt in to a {@link JsonResponseCache} through
+ * {@link #setResponseCache(JsonResponseCache)}.
+ * <p>
+ * Only {@code http} and {@code https} URLs take that path; characters a URI
+ * may not contain unescaped, such as spaces, are percent-encoded first. Any
+ * other scheme {@link java.net.URL} supports, such as {@code file} or
+ * {@code jar}, is still read through a plain {@link java.net.URLConnection}
+ * on the calling thread, without the timeouts, sharing or cache.
  * 
  * @author DZ-FSDev
  * @since 17.0.1
- * @version 0.0.2
+ * @version 0.0.6
  */
 public final class NetTools {
 	private NetTools() {}
+
+	private static final SingleFlight<String, JSONObject> OBJECT_FLIGHTS =
+			new SingleFlight<>(0, JsonValues::deepCopy);
+	private static final SingleFlight<String, JSONArray> ARRAY_FLIGHTS =
+			new SingleFlight<>(0, JsonValues::deepCopy);
+	private static volatile JsonResponseCache responseCache;
+
+	/**
+	 * Routes subsequent reads through a response cache, or back to plain
+	 * requests. Whether callers may mutate the values they read then depends
+	 * on the copier of the cache.
+	 * 
+	 * @param cache The cache to read through; null for none.
+	 * @since 0.0.5
+	 */
+	public static void setResponseCache(JsonResponseCache cache) {
+		responseCache = cache;
+	}
+
+	/**
+	 * Returns the response cache reads go through.
+	 * 
+	 * @return The response cache; null if none.
+	 * @since 0.0.5
+	 */
+	public static JsonResponseCache getResponseCache() {
+		return responseCache;
+	}
 	
 	/**
 	 * Attempts a GET request and serializes the response to return as a 
@@ -44,30 +91,15 @@ public final class NetTools {
 	 * 
 	 * @param url The URL to send a GET request.
 	 * @return The serialized {@link org.json.JSONObject}.
-	 * @since 0.0.2
+	 * @since 0.0.4
 	 */
-	@SuppressWarnings("finally")
 	public static JSONObject tryReadJSONFromUrl(String url) {
-		InputStream myInputStream = null;
-		JSONObject json = null;
-		try {
-			myInputStream = new URL(url).openStream();
-			BufferedReader myBufferedReader = new BufferedReader(new InputStreamReader(myInputStream, StandardCharsets.UTF_8));
-			StringBuilder contents = new StringBuilder();
-			String data = myBufferedReader.readLine();
-			while(data != null){
-				contents.append(data);
-				contents.append('\n');
-				data = myBufferedReader.readLine();
-			}
-			json = new JSONObject(contents.toString());
-		}finally {
-			try {
-				myInputStream.close();
-			} finally {
-				return json;
-			}
-		}
+		if(!isHttp(url))return tryReadLegacy(url, JSONObject::new);
+		return tryGet(OBJECT_FLIGHTS.execute(url, () -> {
+			JsonResponseCache cache = responseCache;
+			return cache != null ? cache.getJSONObject(url)
+					: AsyncJsonClient.shared().getJSONObject(url);
+		}));
 	}
 	
 	/**
@@ -77,29 +109,69 @@ public final class NetTools {
 	 * 
 	 * @param url The URL to send a GET request.
 	 * @return The serialized {@link org.json.JSONArray}.
-	 * @since 0.0.2
+	 * @since 0.0.4
 	 */
-	@SuppressWarnings("finally")
 	public static JSONArray tryReadJSONArrayFromUrl(String url) {
-		InputStream myInputStream = null;
-		JSONArray json = null;
+		if(!isHttp(url))return tryReadLegacy(url, JSONArray::new);
+		return tryGet(ARRAY_FLIGHTS.execute(url, () -> {
+			JsonResponseCache cache = responseCache;
+			return cache != null ? cache.getJSONArray(url)
+					: AsyncJsonClient.shared().getJSONArray(url);
+		}));
+	}
+
+	/**
+	 * Private helper method checking whether a URL is sent through the
+	 * {@link AsyncJsonClient}.
+	 * 
+	 * @param url The URL.
+	 * @return True if the scheme of the URL is http or https.
+	 * @since 0.0.6
+	 */
+	private static boolean isHttp(String url) {
+		int colon = url.indexOf(':');
+		if(colon < 0)return false;
+		String scheme = url.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+		return scheme.equals("http") || scheme.equals("https");
+	}
+
+	/**
+	 * Private helper method reading a URL through a plain
+	 * {@link java.net.URLConnection}, as every read did before 0.0.3.
+	 * 
+	 * @param <T>    The type of the result.
+	 * @param url    The URL to read.
+	 * @param parser Parses the response body.
+	 * @return The parsed response; null on failure.
+	 * @since 0.0.6
+	 */
+	private static <T> T tryReadLegacy(String url, Function<JSONTokener, T> parser) {
+		try(InputStream in = new URL(url).openStream();
+				Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			return parser.apply(new JSONTokener(reader));
+		}catch(IOException | JSONException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Private helper method waiting for a future, returning null if it
+	 * failed or the wait was interrupted.
+	 * 
+	 * @param <T>    The type of the result.
+	 * @param future The future to wait for.
+	 * @return The result of the future; null on failure.
+	 * @since 0.0.3
+	 */
+	private static <T> T tryGet(CompletableFuture<T> future) {
 		try {
-			myInputStream = new URL(url).openStream();
-			BufferedReader myBufferedReader = new BufferedReader(new InputStreamReader(myInputStream, StandardCharsets.UTF_8));
-			StringBuilder contents = new StringBuilder();
-			String data = myBufferedReader.readLine();
-			while(data != null){
-				contents.append(data);
-				contents.append('\n');
-				data = myBufferedReader.readLine();
-			}
-			json = new JSONArray(contents.toString());
-		}finally {
-			try {
-				myInputStream.close();
-			} finally {
-				return json;
-			}
+			return future.get();
+		}catch(InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return null;
+		}catch(ExecutionException e) {
+			return null;
 		}
 	}
 }
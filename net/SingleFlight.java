@@ -0,0 +1,218 @@
+/*  Licensing Copyright
+ * 
+ *  Coalesces concurrent identical requests into one.
+ *  Copyright (C) 2026  DZ-FSDev
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.dz_fs_dev.common.net;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent requests for the same key: while a request is in
+ * flight, further requests for its key join it instead of starting their
+ * own, so a thundering herd costs one upstream call and one parse. A
+ * successful result may optionally linger for a short window, serving
+ * requests which arrive just after it completed. Failures are never kept.
+ * <p>
+ * The caller which started a request receives the result itself, so an
+ * uncontended request costs nothing extra. Callers which joined it, or were
+ * served by a lingering result, each receive their own copy made by a
+ * configurable copier, such as {@link JsonValues#deepCopy(Object)} for
+ * mutable org.json values, so callers cannot observe each other's changes.
+ * The copies are taken from one further copy kept aside, since the starting
+ * caller may already be changing the original.
+ * 
+ * @param <K> The type of the keys.
+ * @param <V> The type of the results.
+ * 
+ * @author DZ-FSDev
+ * @since 17.0.2
+ * @version 0.0.2
+ */
+public class SingleFlight<K, V> {
+	private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+	private final long lingerMillis;
+	private final UnaryOperator<V> copier;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder executions = new LongAdder();
+
+	/**
+	 * A shared request and the callers which joined it.
+	 * 
+	 * @param <V> The type of the result.
+	 */
+	private static final class Flight<V> {
+		/** Completes with the copy kept aside, or null if nobody joined. */
+		final CompletableFuture<V> shared = new CompletableFuture<>();
+		private int joiners;
+		private boolean sealed;
+
+		/**
+		 * Joins the request unless it was sealed.
+		 * 
+		 * @return True if joined.
+		 */
+		synchronized boolean join() {
+			if(sealed)return false;
+			joiners++;
+			return true;
+		}
+
+		/**
+		 * Refuses further joiners.
+		 * 
+		 * @return True if any caller joined.
+		 */
+		synchronized boolean seal() {
+			sealed = true;
+			return joiners > 0;
+		}
+	}
+
+	/**
+	 * Constructs a coalescer for immutable results, without lingering.
+	 * 
+	 * @since 0.0.1
+	 */
+	public SingleFlight() {
+		this(0, UnaryOperator.identity());
+	}
+
+	/**
+	 * Constructs a coalescer.
+	 * 
+	 * @param lingerMillis How long a successful result keeps serving new
+	 *                     requests after it completed; 0 for none.
+	 * @param copier       Copies the shared result for each caller which
+	 *                     did not start the request.
+	 * @throws IllegalArgumentException Thrown when lingerMillis is negative.
+	 * @since 0.0.1
+	 */
+	public SingleFlight(long lingerMillis, UnaryOperator<V> copier) {
+		if(lingerMillis < 0)throw new IllegalArgumentException(
+				"lingerMillis cannot be negative.");
+		this.lingerMillis = lingerMillis;
+		this.copier = copier;
+	}
+
+	/**
+	 * Returns the result of the request in flight for a specified key,
+	 * starting one with a specified supplier if there is none.
+	 * 
+	 * @param key   The key identifying the request.
+	 * @param fetch Starts the request; only invoked when no request for the
+	 *              key is in flight or lingering.
+	 * @return A future of the result if this call started the request, or
+	 * of a copy of it otherwise. Cancelling it does not cancel the shared
+	 * request.
+	 * @since 0.0.1
+	 */
+	public CompletableFuture<V> execute(K key,
+			Supplier<? extends CompletableFuture<V>> fetch) {
+		calls.increment();
+		for(;;) {
+			Flight<V> flight = new Flight<>();
+			Flight<V> shared = flights.putIfAbsent(key, flight);
+			if(shared == null)return lead(key, flight, fetch);
+			if(shared.join())return shared.shared.thenApply(copier);
+			// Sealed and already removed; start or join the next request.
+		}
+	}
+
+	/**
+	 * Private helper method starting a shared request. Once it completes,
+	 * the flight is removed right away, sealing it, or after the linger
+	 * window; a copy is kept aside for joiners only if some caller joined or
+	 * may still join.
+	 * 
+	 * @param key    The key identifying the request.
+	 * @param flight The flight of the request.
+	 * @param fetch  Starts the request.
+	 * @return A future of the result itself.
+	 * @since 0.0.2
+	 */
+	private CompletableFuture<V> lead(K key, Flight<V> flight,
+			Supplier<? extends CompletableFuture<V>> fetch) {
+		executions.increment();
+		CompletableFuture<V> source;
+		try {
+			source = fetch.get();
+		}catch(RuntimeException e) {
+			source = CompletableFuture.failedFuture(e);
+		}
+		CompletableFuture<V> result = new CompletableFuture<>();
+		source.whenComplete((value, error) -> {
+			boolean joined;
+			if(error != null || lingerMillis == 0) {
+				flights.remove(key, flight);
+				joined = flight.seal();
+			}else {
+				CompletableFuture.delayedExecutor(lingerMillis,
+						TimeUnit.MILLISECONDS)
+						.execute(() -> flights.remove(key, flight));
+				joined = true;
+			}
+			if(error != null) {
+				flight.shared.completeExceptionally(error);
+				result.completeExceptionally(error);
+				return;
+			}
+			try {
+				flight.shared.complete(joined ? copier.apply(value) : null);
+			}catch(RuntimeException e) {
+				flight.shared.completeExceptionally(e);
+			}
+			result.complete(value);
+		});
+		return result;
+	}
+
+	/**
+	 * Returns the number of keys with a request in flight or lingering.
+	 * 
+	 * @return The number of shared requests.
+	 * @since 0.0.1
+	 */
+	public int size() {
+		return flights.size();
+	}
+
+	/**
+	 * Returns the number of calls to {@link #execute(Object, Supplier)}.
+	 * 
+	 * @return The number of calls.
+	 * @since 0.0.1
+	 */
+	public long getCallCount() {
+		return calls.sum();
+	}
+
+	/**
+	 * Returns the number of requests actually started.
+	 * 
+	 * @return The number of requests started.
+	 * @since 0.0.1
+	 */
+	public long getExecutionCount() {
+		return executions.sum();
+	}
+}